@@ -0,0 +1,227 @@
+package com.voicemap.backend.config;
+
+import com.voicemap.backend.model.Grievance;
+import com.voicemap.backend.model.Pincode;
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.GrievanceRollupService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Declares the indexes the query paths rely on and checks that they are used.
+ *
+ * Spring Boot leaves auto-index-creation off, so the mapping annotations alone create
+ * nothing. Once the application is up this ensures the indexes below (a background
+ * thread, like the startup pincode import), then explains each hot query shape and
+ * reports any whose winning plan is a COLLSCAN. With voicemap.indexes.fail-on-collscan
+ * such a finding marks the check FAILED, which takes the readiness probe down.
+ */
+@Component
+public class MongoIndexBootstrap {
+
+    // FAILED only with fail-on-collscan; otherwise problems are reported and the state is DONE
+    public enum State { PENDING, RUNNING, DONE, FAILED }
+
+    private final MongoTemplate mongoTemplate;
+    private final GrievanceRollupService rollups;
+    private final boolean enabled;
+    private final boolean failOnCollscan;
+    private volatile State state = State.PENDING;
+    private volatile List<String> collscans = List.of();
+    private volatile String error;
+
+    public MongoIndexBootstrap(MongoTemplate mongoTemplate, GrievanceRollupService rollups,
+                               @Value("${voicemap.indexes.enabled:true}") boolean enabled,
+                               @Value("${voicemap.indexes.fail-on-collscan:false}") boolean failOnCollscan) {
+        this.mongoTemplate = mongoTemplate;
+        this.rollups = rollups;
+        this.enabled = enabled;
+        this.failOnCollscan = failOnCollscan;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /** Names of the query shapes that were planned as a collection scan. */
+    public List<String> getCollscans() {
+        return collscans;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            state = State.DONE;
+            return;
+        }
+        Thread t = new Thread(this::run, "mongo-index-bootstrap");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void run() {
+        state = State.RUNNING;
+        try {
+            ensureIndexes();
+            List<String> found = verifyPlans();
+            collscans = found;
+            if (!found.isEmpty() && failOnCollscan) {
+                error = "collection scans: " + found;
+                state = State.FAILED;
+            } else {
+                state = State.DONE;
+            }
+        } catch (Exception ex) {
+            error = ex.getMessage();
+            state = failOnCollscan ? State.FAILED : State.DONE;
+            System.out.println("Index bootstrap failed: " + ex.getMessage());
+        }
+    }
+
+    // --- index declarations ---
+
+    private void ensureIndexes() {
+        IndexOperations regions = mongoTemplate.indexOps(Region.class);
+        ensure(regions, new GeospatialIndex("geo").typed(GeoSpatialIndexType.GEO_2DSPHERE));
+        // findByType, import upsert keys (type+code, type+state+name), name lookups by type
+        ensure(regions, new Index().on("type", Sort.Direction.ASC).on("code", Sort.Direction.ASC).on("name", Sort.Direction.ASC));
+        ensure(regions, new Index().on("type", Sort.Direction.ASC).on("state", Sort.Direction.ASC));
+        // import keys of a source, and upserts by source id
+        ensure(regions, new Index().on("source", Sort.Direction.ASC).on("sourceId", Sort.Direction.ASC));
+
+        IndexOperations pincodes = mongoTemplate.indexOps(Pincode.class);
+        dropLegacy2d("pincodes", "location");
+        ensure(pincodes, new Index().on("pincode", Sort.Direction.ASC).unique());
+        ensure(pincodes, new GeospatialIndex("location").typed(GeoSpatialIndexType.GEO_2DSPHERE));
+
+        // listing is keyset paged on (createdAt, _id) under each filter combination
+        IndexOperations grievances = mongoTemplate.indexOps(Grievance.class);
+        ensure(grievances, new GeospatialIndex("location").typed(GeoSpatialIndexType.GEO_2DSPHERE));
+        ensure(grievances, newestFirst(new Index()));
+        ensure(grievances, newestFirst(new Index().on("district", Sort.Direction.ASC)));
+        ensure(grievances, newestFirst(new Index().on("category", Sort.Direction.ASC)));
+        ensure(grievances, newestFirst(new Index().on("category", Sort.Direction.ASC).on("district", Sort.Direction.ASC)));
+
+        try {
+            rollups.ensureIndexes(GrievanceRollupService.COLLECTION);
+        } catch (RuntimeException ex) {
+            System.out.println("Could not create rollup indexes: " + ex.getMessage());
+        }
+    }
+
+    private static Index newestFirst(Index index) {
+        return index.on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC);
+    }
+
+    // one bad index (e.g. a 2dsphere build rejecting an invalid boundary) must not stop the rest
+    private static void ensure(IndexOperations ops, IndexDefinition index) {
+        try {
+            ops.ensureIndex(index);
+        } catch (RuntimeException ex) {
+            System.out.println("Could not create index " + index.getIndexKeys().toJson() + ": " + ex.getMessage());
+        }
+    }
+
+    // Pincode.location used to be declared as a legacy 2d index
+    private void dropLegacy2d(String collection, String field) {
+        for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+            Document key = index.get("key", Document.class);
+            if (key.size() == 1 && "2d".equals(key.get(field))) {
+                System.out.println("Dropping legacy 2d index " + index.getString("name") + " on " + collection);
+                mongoTemplate.getCollection(collection).dropIndex(index.getString("name"));
+            }
+        }
+    }
+
+    // --- plan verification ---
+
+    private record Shape(String name, String collection, Document filter, Document sort, int limit) {}
+
+    private static List<Shape> shapes() {
+        Document point = new Document("type", "Point").append("coordinates", List.of(77.59, 12.97));
+        Document box = new Document("type", "Polygon").append("coordinates", List.of(List.of(
+                List.of(77.0, 12.0), List.of(78.0, 12.0), List.of(78.0, 13.0), List.of(77.0, 13.0), List.of(77.0, 12.0))));
+        Document newest = new Document("createdAt", -1).append("_id", -1);
+        Document after = new Document("$or", List.of(
+                new Document("createdAt", new Document("$lt", new Date())),
+                new Document("createdAt", new Date()).append("_id", new Document("$lt", new ObjectId()))));
+
+        List<Shape> out = new ArrayList<>();
+        // region name search is an unanchored case-insensitive regex; no index can seek it
+        out.add(new Shape("regions.byType", "regions", new Document("type", "pc"), null, 0));
+        out.add(new Shape("regions.byTypeAndState", "regions", new Document("type", "ac").append("state", "Karnataka"), null, 0));
+        out.add(new Shape("regions.byTypeAndCode", "regions", new Document("type", "pc").append("code", "PC-1"), null, 1));
+        out.add(new Shape("regions.bySource", "regions", new Document("source", "upload").append("type", "pc"), null, 0));
+        out.add(new Shape("regions.containing", "regions",
+                new Document("geo", new Document("$geoIntersects", new Document("$geometry", point))).append("type", "pc"), null, 0));
+        out.add(new Shape("regions.viewport", "regions", new Document("type", "district")
+                .append("bbox.0", new Document("$lte", 78.0)).append("bbox.1", new Document("$lte", 13.0))
+                .append("bbox.2", new Document("$gte", 77.0)).append("bbox.3", new Document("$gte", 12.0)), null, 0));
+        out.add(new Shape("pincodes.byCode", "pincodes", new Document("pincode", "110001"), null, 1));
+        out.add(new Shape("pincodes.prefix", "pincodes",
+                new Document("pincode", new Document("$regex", "^1100")), new Document("pincode", 1), 8));
+        out.add(new Shape("grievances.latest", "grievances", new Document(), newest, 21));
+        out.add(new Shape("grievances.byDistrict", "grievances", new Document("district", "Bengaluru Urban"), newest, 21));
+        out.add(new Shape("grievances.byCategory", "grievances", new Document("category", "Roads"), newest, 21));
+        out.add(new Shape("grievances.byCategoryAndDistrict", "grievances",
+                new Document("district", "Bengaluru Urban").append("category", "Roads"), newest, 21));
+        out.add(new Shape("grievances.nextPage", "grievances",
+                new Document("$and", List.of(new Document("district", "Bengaluru Urban"), after)), newest, 21));
+        out.add(new Shape("grievances.viewport", "grievances",
+                new Document("location", new Document("$geoWithin", new Document("$geometry", box))), newest, 21));
+        out.add(new Shape("rollups.byLevel", GrievanceRollupService.COLLECTION, new Document("level", "pc")
+                .append("day", new Document("$gte", "2025-01-01").append("$lte", "2025-03-31")).append("category", "Roads"), null, 0));
+        out.add(new Shape("rollups.forRegion", GrievanceRollupService.COLLECTION,
+                new Document("level", "district").append("regionId", "r1"), new Document("day", 1).append("category", 1), 0));
+        return out;
+    }
+
+    private List<String> verifyPlans() {
+        List<String> found = new ArrayList<>();
+        for (Shape s : shapes()) {
+            Document find = new Document("find", s.collection()).append("filter", s.filter());
+            if (s.sort() != null) find.append("sort", s.sort());
+            if (s.limit() > 0) find.append("limit", s.limit());
+            Document explain = mongoTemplate.getDb().runCommand(
+                    new Document("explain", find).append("verbosity", "queryPlanner"));
+            Object plan = explain.get("queryPlanner", Document.class).get("winningPlan");
+            if (hasStage(plan, "COLLSCAN")) {
+                found.add(s.name());
+                System.out.println("Query plan check: " + s.name() + " on " + s.collection() + " is a COLLSCAN");
+            }
+        }
+        System.out.println("Query plan check: " + shapes().size() + " shapes, " + found.size() + " collection scans");
+        return Collections.unmodifiableList(found);
+    }
+
+    // walks nested inputStage(s)/queryPlan of an explain plan
+    private static boolean hasStage(Object node, String stage) {
+        if (node instanceof Document d) {
+            if (stage.equals(d.get("stage"))) return true;
+            for (Object v : d.values()) if (hasStage(v, stage)) return true;
+        } else if (node instanceof List<?> list) {
+            for (Object v : list) if (hasStage(v, stage)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package com.voicemap.backend.config;
+
+import com.voicemap.backend.service.RegionSpatialIndex;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "startupData" health contributor, part of the readiness group: out of service until
+ * the startup pincode load has finished and the region index has been built once.
+ * Liveness is unaffected, so a slow load never gets the pod restarted. A failed
+ * index/query-plan check (see MongoIndexBootstrap) also takes it down.
+ */
+@Component("startupData")
+public class StartupDataHealthIndicator implements HealthIndicator {
+
+    private final StartupPincodeImporter pincodes;
+    private final RegionSpatialIndex regionIndex;
+    private final MongoIndexBootstrap indexes;
+
+    public StartupDataHealthIndicator(StartupPincodeImporter pincodes, RegionSpatialIndex regionIndex,
+                                      MongoIndexBootstrap indexes) {
+        this.pincodes = pincodes;
+        this.regionIndex = regionIndex;
+        this.indexes = indexes;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder b = pincodes.isReady() && regionIndex.hasSnapshot() ? Health.up() : Health.outOfService();
+        if (pincodes.getState() == StartupPincodeImporter.State.FAILED
+                || indexes.getState() == MongoIndexBootstrap.State.FAILED) b = Health.down();
+        b.withDetail("pincodes", pincodes.getState().name().toLowerCase());
+        if (pincodes.getError() != null) b.withDetail("pincodeError", pincodes.getError());
+        b.withDetail("regionIndex", regionIndex.hasSnapshot() ? "built (" + regionIndex.size() + " regions)" : "building");
+        b.withDetail("indexes", indexes.getState().name().toLowerCase());
+        if (!indexes.getCollscans().isEmpty()) b.withDetail("collscans", indexes.getCollscans());
+        if (indexes.getError() != null) b.withDetail("indexError", indexes.getError());
+        return b.build();
+    }
+}
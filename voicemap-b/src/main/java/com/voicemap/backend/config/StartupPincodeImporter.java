@@ -1,70 +1,79 @@
 package com.voicemap.backend.config;
 
-import com.voicemap.backend.model.Pincode;
+import com.voicemap.backend.service.PincodeImporter;
 import com.voicemap.backend.service.PincodeService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
 
+/**
+ * Loads data/pincode.points.geojson into an empty pincode collection.
+ *
+ * Runs on a background thread once the application is up, so the web server does not
+ * wait for it; StartupDataHealthIndicator keeps the readiness probe out of service
+ * until it has finished.
+ */
 @Component
-public class StartupPincodeImporter implements CommandLineRunner {
+public class StartupPincodeImporter {
+
+    public enum State { PENDING, LOADING, READY, FAILED }
 
     private final PincodeService service;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private volatile State state = State.PENDING;
+    private volatile String error;
 
     public StartupPincodeImporter(PincodeService service) {
         this.service = service;
     }
 
-    @Override
-    public void run(String... args) throws Exception {
-        if (service.count() > 0) {
-            System.out.println("Pincode collection not empty; skipping startup import.");
-            return;
-        }
+    public State getState() {
+        return state;
+    }
 
-        ClassPathResource r = new ClassPathResource("data/pincode.points.geojson");
-        if (!r.exists()) {
-            System.out.println("No pincode.points.geojson in resources; skipping import.");
-            return;
-        }
-        try (InputStream in = r.getInputStream()) {
-            JsonNode root = mapper.readTree(in);
-            if (!root.has("features") || !root.get("features").isArray()) {
-                System.out.println("Invalid GeoJSON; skipping.");
+    public String getError() {
+        return error;
+    }
+
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread t = new Thread(this::load, "pincode-startup-import");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    void load() {
+        state = State.LOADING;
+        try {
+            if (service.count() > 0) {
+                System.out.println("Pincode collection not empty; skipping startup import.");
+                state = State.READY;
                 return;
             }
-            int count = 0;
-            for (JsonNode f : root.get("features")) {
-                try {
-                    JsonNode geom = f.get("geometry");
-                    JsonNode props = f.get("properties");
-                    if (geom == null || !geom.has("coordinates")) continue;
-                    double lon = geom.get("coordinates").get(0).asDouble();
-                    double lat = geom.get("coordinates").get(1).asDouble();
-                    String code = null;
-                    if (props != null && props.has("Pincode")) code = props.get("Pincode").asText();
-                    if (code == null && props != null && props.has("PINCODE")) code = props.get("PINCODE").asText();
-                    if (code == null) continue;
-                    Pincode p = new Pincode();
-                    p.setPincode(code);
-                    if (props != null && props.has("Office_Name")) p.setOfficeName(props.get("Office_Name").asText());
-                    if (props != null && props.has("Division")) p.setDivision(props.get("Division").asText());
-                    if (props != null && props.has("Region")) p.setRegion(props.get("Region").asText());
-                    if (props != null && props.has("Circle")) p.setCircle(props.get("Circle").asText());
-                    p.setLocation(new GeoJsonPoint(lon, lat));
-                    service.save(p);
-                    count++;
-                } catch (Exception ex) {
-                    // per-feature failure — continue
-                }
+
+            ClassPathResource r = new ClassPathResource("data/pincode.points.geojson");
+            if (!r.exists()) {
+                System.out.println("No pincode.points.geojson in resources; skipping import.");
+                state = State.READY;
+                return;
+            }
+            try (InputStream in = r.getInputStream()) {
+                int count = new PincodeImporter(service).importFromGeoJson(in);
+                System.out.println("Startup pincodes imported: " + count);
+            } catch (IllegalArgumentException ex) {
+                System.out.println("Invalid GeoJSON; skipping.");
             }
-            System.out.println("Startup pincodes imported: " + count);
+            state = State.READY;
+        } catch (Exception ex) {
+            error = ex.getMessage();
+            state = State.FAILED;
+            System.out.println("Startup pincode import failed: " + ex.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.voicemap.backend.controller;
+
+/**
+ * Parses the {@code bbox=minLon,minLat,maxLon,maxLat} query parameter shared by the
+ * region and grievance endpoints.
+ */
+final class BboxParser {
+
+    private BboxParser() {}
+
+    /** Returns [minLon, minLat, maxLon, maxLat], or null when the parameter is absent. */
+    static double[] parse(String bbox) {
+        if (bbox == null || bbox.isBlank()) return null;
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        double[] b = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) b[i] = Double.parseDouble(parts[i].trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("bbox values must be numbers");
+        }
+        if (b[0] > b[2] || b[1] > b[3]) {
+            throw new IllegalArgumentException("bbox min values must not exceed max values");
+        }
+        if (b[0] < -180 || b[2] > 180 || b[1] < -90 || b[3] > 90) {
+            throw new IllegalArgumentException("bbox out of range");
+        }
+        return b;
+    }
+}
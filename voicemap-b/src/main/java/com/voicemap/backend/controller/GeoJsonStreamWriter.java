@@ -0,0 +1,149 @@
+package com.voicemap.backend.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.PackedMultiPolygon;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+import org.springframework.data.mongodb.core.geo.GeoJsonMultiPolygon;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * Writes GeoJSON FeatureCollections straight to an output stream with a JsonGenerator.
+ *
+ * Unlike GeoJsonConverter.geoToGeoJsonRaw, nothing is materialized per region: properties
+ * and coordinates are emitted field by field, so memory stays flat regardless of how
+ * many regions the iterator yields.
+ */
+public class GeoJsonStreamWriter {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * Stream a FeatureCollection. {@code geometryOf} returns a GeoJsonMultiPolygon,
+     * PackedMultiPolygon or JTS Geometry for each region (null writes a null geometry).
+     */
+    public static void writeFeatureCollection(OutputStream out, Iterator<Region> regions,
+                                              Function<Region, Object> geometryOf) throws IOException {
+        try (JsonGenerator gen = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("type", "FeatureCollection");
+            gen.writeArrayFieldStart("features");
+            while (regions.hasNext()) {
+                Region r = regions.next();
+                writeFeature(gen, r, geometryOf.apply(r));
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    /** One Feature as a JSON string, for responses emitted feature by feature. */
+    public static String featureJson(Region r, Object geometry) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = JSON.createGenerator(out)) {
+            writeFeature(gen, r, geometry);
+        }
+        return out.toString();
+    }
+
+    public static void writeFeature(JsonGenerator gen, Region r, Object geometry) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "Feature");
+
+        gen.writeObjectFieldStart("properties");
+        gen.writeStringField("name", r.getName());
+        gen.writeStringField("state", r.getState());
+        gen.writeStringField("code", r.getCode());
+        gen.writeStringField("type", r.getType());
+        gen.writeStringField("id", r.getId());
+        gen.writeEndObject();
+
+        gen.writeFieldName("geometry");
+        if (geometry instanceof GeoJsonMultiPolygon multi) {
+            writeGeometry(gen, multi);
+        } else if (geometry instanceof PackedMultiPolygon packed) {
+            packed.writeGeoJson(gen);
+        } else if (geometry instanceof Geometry jts) {
+            writeGeometry(gen, jts);
+        } else {
+            gen.writeNull();
+        }
+        gen.writeEndObject();
+    }
+
+    /** Write a stored MultiPolygon as a GeoJSON geometry object. */
+    public static void writeGeometry(JsonGenerator gen, GeoJsonMultiPolygon multi) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "MultiPolygon");
+        gen.writeArrayFieldStart("coordinates");
+        for (GeoJsonPolygon polygon : multi.getCoordinates()) {
+            gen.writeStartArray();
+            for (GeoJsonLineString ring : polygon.getCoordinates()) {
+                gen.writeStartArray();
+                for (Point p : ring.getCoordinates()) {
+                    gen.writeStartArray();
+                    gen.writeNumber(p.getX());
+                    gen.writeNumber(p.getY());
+                    gen.writeEndArray();
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /** Write any polygonal JTS geometry as a GeoJSON MultiPolygon; other parts are skipped. */
+    public static void writeGeometry(JsonGenerator gen, Geometry g) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "MultiPolygon");
+        gen.writeArrayFieldStart("coordinates");
+        for (int i = 0; i < g.getNumGeometries(); i++) {
+            Geometry part = g.getGeometryN(i);
+            if (part instanceof Polygon poly) {
+                writePolygon(gen, poly);
+            } else if (part != g) {
+                // nested collection: flatten its polygons
+                for (int j = 0; j < part.getNumGeometries(); j++) {
+                    if (part.getGeometryN(j) instanceof Polygon nested) writePolygon(gen, nested);
+                }
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void writePolygon(JsonGenerator gen, Polygon poly) throws IOException {
+        if (poly.isEmpty()) return;
+        gen.writeStartArray();
+        writeRing(gen, poly.getExteriorRing().getCoordinateSequence());
+        for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+            writeRing(gen, poly.getInteriorRingN(i).getCoordinateSequence());
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeRing(JsonGenerator gen, CoordinateSequence seq) throws IOException {
+        gen.writeStartArray();
+        for (int i = 0, n = seq.size(); i < n; i++) {
+            gen.writeStartArray();
+            gen.writeNumber(seq.getX(i));
+            gen.writeNumber(seq.getY(i));
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,222 @@
+package com.voicemap.backend.controller;
+
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.PackedMultiPolygon;
+import com.voicemap.backend.service.ProtoWriter;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+import org.springframework.data.mongodb.core.geo.GeoJsonMultiPolygon;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodes regions as a Geobuf FeatureCollection (https://github.com/mapbox/geobuf).
+ *
+ * Coordinates are fixed-point integers at 10^precision, delta-encoded per ring and
+ * written as packed zigzag varints; ring structure goes into a packed "lengths" array.
+ * The message header carries the shared property keys and the precision, so any
+ * Geobuf decoder (e.g. the geobuf npm package) can turn it back into GeoJSON.
+ *
+ * Ahead of the features the header also holds a feature index in field 16 (an
+ * extension field that standard decoders skip): packed sint64 bounding boxes at the
+ * same precision, four per feature (minX, minY, maxX, maxY; all zero for a feature
+ * without coordinates), and packed byte offsets of each feature within the
+ * feature_collection payload plus its total length. A client can read the header,
+ * pick the features in its viewport and decode only those byte ranges.
+ */
+public class GeobufWriter {
+
+    public static final int DEFAULT_PRECISION = 6;
+
+    private static final List<String> KEYS = List.of("name", "state", "code", "type", "id");
+    private static final int TYPE_MULTIPOLYGON = 5;
+    static final int FIELD_INDEX = 16;
+
+    private final int precision;
+    private final double e;
+
+    // reused coordinate buffer; grows to the largest geometry seen
+    private long[] coords = new long[4096];
+    private int coordCount;
+    private final List<Integer> lengths = new ArrayList<>();
+    // fixed-point bounds of the geometry being written
+    private long minX, minY, maxX, maxY;
+    private boolean hasCoords;
+
+    public GeobufWriter(int precision) {
+        this.precision = precision;
+        this.e = Math.pow(10, precision);
+    }
+
+    /**
+     * Write a FeatureCollection. {@code geometryOf} returns a GeoJsonMultiPolygon,
+     * PackedMultiPolygon or JTS Geometry for each region (null writes a feature without coordinates).
+     */
+    public void write(OutputStream out, Iterator<Region> regions, Function<Region, Object> geometryOf)
+            throws IOException {
+        ProtoWriter collection = new ProtoWriter();
+        long[] boxes = new long[256];
+        List<Integer> offsets = new ArrayList<>();
+        while (regions.hasNext()) {
+            Region r = regions.next();
+            offsets.add(collection.size());
+            byte[] feature = feature(r, geometryOf.apply(r));
+            int i = (offsets.size() - 1) * 4;
+            if (boxes.length < i + 4) boxes = Arrays.copyOf(boxes, boxes.length * 2);
+            if (hasCoords) {
+                boxes[i] = minX;
+                boxes[i + 1] = minY;
+                boxes[i + 2] = maxX;
+                boxes[i + 3] = maxY;
+            }
+            collection.bytes(1, feature);
+        }
+        offsets.add(collection.size());
+
+        ProtoWriter index = new ProtoWriter();
+        index.packedSint64(1, boxes, (offsets.size() - 1) * 4);
+        index.packed(2, offsets);
+
+        ProtoWriter data = new ProtoWriter();
+        for (String k : KEYS) data.string(1, k);
+        data.uint32(3, precision);
+        data.bytes(FIELD_INDEX, index.toByteArray());
+        data.bytes(4, collection.toByteArray());
+        out.write(data.toByteArray());
+        out.flush();
+    }
+
+    private byte[] feature(Region r, Object geometry) {
+        ProtoWriter f = new ProtoWriter();
+        f.bytes(1, geometry(geometry));
+        if (r.getId() != null) f.string(11, r.getId());
+
+        String[] values = {r.getName(), r.getState(), r.getCode(), r.getType(), r.getId()};
+        List<Integer> props = new ArrayList<>();
+        int valueIndex = 0;
+        for (int k = 0; k < values.length; k++) {
+            if (values[k] == null) continue;
+            ProtoWriter v = new ProtoWriter();
+            v.string(1, values[k]);
+            f.bytes(13, v.toByteArray());
+            props.add(k);
+            props.add(valueIndex++);
+        }
+        f.packed(14, props);
+        return f.toByteArray();
+    }
+
+    private byte[] geometry(Object geometry) {
+        coordCount = 0;
+        hasCoords = false;
+        lengths.clear();
+        lengths.add(0);
+        int polygons = 0;
+        if (geometry instanceof GeoJsonMultiPolygon multi) {
+            for (GeoJsonPolygon poly : multi.getCoordinates()) {
+                lengths.add(poly.getCoordinates().size());
+                for (GeoJsonLineString ring : poly.getCoordinates()) addRing(ring.getCoordinates());
+                polygons++;
+            }
+        } else if (geometry instanceof PackedMultiPolygon packed) {
+            for (int p = 0; p < packed.getNumPolygons(); p++) {
+                int first = packed.getFirstRing(p);
+                lengths.add(packed.getNumRings(p));
+                for (int k = first; k < first + packed.getNumRings(p); k++) addRing(packed.ring(k));
+            }
+            polygons = packed.getNumPolygons();
+        } else if (geometry instanceof Geometry jts) {
+            polygons = addPolygons(jts);
+        }
+        lengths.set(0, polygons);
+
+        ProtoWriter g = new ProtoWriter();
+        g.uint32(1, TYPE_MULTIPOLYGON);
+        if (polygons > 0) {
+            g.packed(2, lengths);
+            g.packedSint64(3, coords, coordCount);
+        }
+        return g.toByteArray();
+    }
+
+    private int addPolygons(Geometry g) {
+        if (g instanceof Polygon poly) {
+            if (poly.isEmpty()) return 0;
+            lengths.add(1 + poly.getNumInteriorRing());
+            addRing(poly.getExteriorRing().getCoordinateSequence());
+            for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+                addRing(poly.getInteriorRingN(i).getCoordinateSequence());
+            }
+            return 1;
+        }
+        int count = 0;
+        for (int i = 0; i < g.getNumGeometries(); i++) {
+            Geometry part = g.getGeometryN(i);
+            if (part != g) count += addPolygons(part);
+        }
+        return count;
+    }
+
+    // closed rings are written without their repeated closing point
+    private void addRing(List<Point> ring) {
+        int n = Math.max(0, ring.size() - 1);
+        lengths.add(n);
+        ensure(n * 2);
+        long sx = 0, sy = 0;
+        for (int i = 0; i < n; i++) {
+            Point p = ring.get(i);
+            long x = Math.round(p.getX() * e);
+            long y = Math.round(p.getY() * e);
+            extend(x, y);
+            coords[coordCount++] = x - sx;
+            coords[coordCount++] = y - sy;
+            sx = x;
+            sy = y;
+        }
+    }
+
+    private void addRing(CoordinateSequence seq) {
+        int n = Math.max(0, seq.size() - 1);
+        lengths.add(n);
+        ensure(n * 2);
+        long sx = 0, sy = 0;
+        for (int i = 0; i < n; i++) {
+            long x = Math.round(seq.getX(i) * e);
+            long y = Math.round(seq.getY(i) * e);
+            extend(x, y);
+            coords[coordCount++] = x - sx;
+            coords[coordCount++] = y - sy;
+            sx = x;
+            sy = y;
+        }
+    }
+
+    private void extend(long x, long y) {
+        if (!hasCoords) {
+            minX = maxX = x;
+            minY = maxY = y;
+            hasCoords = true;
+            return;
+        }
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+    }
+
+    private void ensure(int extra) {
+        if (coordCount + extra > coords.length) {
+            coords = Arrays.copyOf(coords, Math.max(coords.length * 2, coordCount + extra));
+        }
+    }
+}
@@ -73,7 +73,7 @@ public class GeometrySimplifier {
     }
 
     // Convert a JTS Geometry back to GeoJSON-like map
-    private static Map<String, Object> geometryToGeoJsonMap(Geometry g) {
+    public static Map<String, Object> geometryToGeoJsonMap(Geometry g) {
         Map<String, Object> m = new HashMap<>();
         if (g instanceof Polygon) {
             m.put("type", "Polygon");
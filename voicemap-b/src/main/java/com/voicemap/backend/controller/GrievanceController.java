@@ -2,13 +2,15 @@ package com.voicemap.backend.controller;
 
 import com.voicemap.backend.dto.GrievanceRequest;
 import com.voicemap.backend.dto.GrievanceResponse;
+import com.voicemap.backend.dto.GrievanceSlice;
 import com.voicemap.backend.model.Grievance;
+import com.voicemap.backend.service.GrievanceCursor;
+import com.voicemap.backend.service.GrievanceIngestService;
 import com.voicemap.backend.service.GrievanceService;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -16,17 +18,34 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
+import java.net.URI;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/grievances")
 @Validated
 public class GrievanceController {
 
+    static final int MAX_PAGE_SIZE = 200;
+
     private final GrievanceService service;
+    private final GrievanceIngestService ingest;
+    private final boolean async;
 
-    public GrievanceController(GrievanceService service) {
+    public GrievanceController(GrievanceService service, GrievanceIngestService ingest,
+                               @Value("${voicemap.grievance.async:false}") boolean async) {
         this.service = service;
+        this.ingest = ingest;
+        this.async = async;
     }
 
+    /**
+     * Submit a grievance. By default it is processed inline and answered with 201 once written.
+     * With voicemap.grievance.async=true it is validated and queued instead: the response is
+     * 202 with the assigned id and status "queued", and regions are resolved and the grievance
+     * written in the background (poll GET /api/grievances/{id}). A full queue answers 429.
+     * Queued grievances are held in memory only, so a crash can lose accepted ones.
+     */
     @PostMapping
     public ResponseEntity<GrievanceResponse> create(@Valid @RequestBody GrievanceRequest req) {
         Grievance g = new Grievance();
@@ -37,77 +56,95 @@ public class GrievanceController {
         g.setDistrict(req.getDistrict());
         g.setLocation(new GeoJsonPoint(req.getLongitude(), req.getLatitude()));
 
-        Grievance saved = service.createGrievance(g);
-
-        GrievanceResponse r = new GrievanceResponse();
-        r.setId(saved.getId());
-        r.setTitle(saved.getTitle());
-        r.setDescription(saved.getDescription());
-        r.setCategory(saved.getCategory());
-        r.setState(saved.getState());
-        r.setDistrict(saved.getDistrict());
-        r.setStatus(saved.getStatus());
-        r.setCreatedAt(saved.getCreatedAt());
-        if (saved.getLocation() != null) {
-            r.setLatitude(saved.getLocation().getY());
-            r.setLongitude(saved.getLocation().getX());
+        if (!async) {
+            Grievance saved = service.createGrievance(g);
+            return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(saved));
+        }
+        if (!ingest.submit(g)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
         }
-        return ResponseEntity.status(HttpStatus.CREATED).body(r);
+        GrievanceResponse r = toResponse(g);
+        r.setStatus(GrievanceIngestService.STATUS_QUEUED);
+        return ResponseEntity.accepted().location(URI.create("/api/grievances/" + g.getId())).body(r);
     }
 
+    /**
+     * Grievances newest first (sort=createdAt,asc for oldest first), optionally filtered by
+     * district, category and bbox. Pages are keyset based: pass the previous page's next
+     * token as cursor= to continue.
+     */
     @GetMapping
-    public ResponseEntity<Page<GrievanceResponse>> list(
+    public ResponseEntity<GrievanceSlice> list(
             @RequestParam(value = "district", required = false) String district,
             @RequestParam(value = "category", required = false) String category,
-            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "bbox", required = false) String bbox,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "size", defaultValue = "20") int size,
             @RequestParam(value = "sort", defaultValue = "createdAt,desc") String sort
     ) {
         String[] parts = sort.split(",");
-        String field = parts[0];
-        Sort.Direction dir = (parts.length > 1 && parts[1].equalsIgnoreCase("asc"))
-                ? Sort.Direction.ASC : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(dir, field));
+        if (!parts[0].equals("createdAt")) {
+            throw new IllegalArgumentException("Only createdAt sort is supported");
+        }
+        boolean ascending = parts.length > 1 && parts[1].equalsIgnoreCase("asc");
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        GrievanceCursor after = cursor == null || cursor.isBlank() ? null : GrievanceCursor.decode(cursor);
 
-        Page<Grievance> data = service.find(district, category, pageable);
-        Page<GrievanceResponse> mapped = data.map(g -> {
-            GrievanceResponse r = new GrievanceResponse();
-            r.setId(g.getId());
-            r.setTitle(g.getTitle());
-            r.setDescription(g.getDescription());
-            r.setCategory(g.getCategory());
-            r.setState(g.getState());
-            r.setDistrict(g.getDistrict());
-            r.setStatus(g.getStatus());
-            r.setCreatedAt(g.getCreatedAt());
-            if (g.getLocation() != null) {
-                r.setLatitude(g.getLocation().getY());
-                r.setLongitude(g.getLocation().getX());
-            }
-            return r;
-        });
-        return ResponseEntity.ok(mapped);
+        Slice<Grievance> data = service.find(district, category, BboxParser.parse(bbox), after, pageSize, ascending);
+        List<GrievanceResponse> content = data.getContent().stream().map(GrievanceController::toResponse).toList();
+        String next = data.hasNext() ? GrievanceCursor.of(data.getContent().get(content.size() - 1)).encode() : null;
+        return ResponseEntity.ok(new GrievanceSlice(content, pageSize, data.hasNext(), next));
     }
 
+    /**
+     * A grievance by id. Accepted but not yet written ones report status "queued";
+     * ones whose background write failed report "failed" with the error.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<GrievanceResponse> getById(@PathVariable String id) {
+        Grievance queued = ingest.getPending(id);
+        if (queued != null) {
+            GrievanceResponse r = toResponse(queued);
+            r.setStatus(GrievanceIngestService.STATUS_QUEUED);
+            return ResponseEntity.ok(r);
+        }
+        String failure = ingest.getFailure(id);
+        if (failure != null) {
+            GrievanceResponse r = new GrievanceResponse();
+            r.setId(id);
+            r.setStatus(GrievanceIngestService.STATUS_FAILED);
+            r.setError(failure);
+            return ResponseEntity.ok(r);
+        }
         return service.getGrievanceById(id)
-                .map(g -> {
-                    GrievanceResponse r = new GrievanceResponse();
-                    r.setId(g.getId());
-                    r.setTitle(g.getTitle());
-                    r.setDescription(g.getDescription());
-                    r.setCategory(g.getCategory());
-                    r.setState(g.getState());
-                    r.setDistrict(g.getDistrict());
-                    r.setStatus(g.getStatus());
-                    r.setCreatedAt(g.getCreatedAt());
-                    if (g.getLocation() != null) {
-                        r.setLatitude(g.getLocation().getY());
-                        r.setLongitude(g.getLocation().getX());
-                    }
-                    return ResponseEntity.ok(r);
-                })
+                .map(g -> ResponseEntity.ok(toResponse(g)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // PATCH /api/grievances/{id}/status?status=resolved
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<GrievanceResponse> updateStatus(@PathVariable String id, @RequestParam("status") String status) {
+        return service.updateStatus(id, status)
+                .map(g -> ResponseEntity.ok(toResponse(g)))
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    static GrievanceResponse toResponse(Grievance g) {
+        GrievanceResponse r = new GrievanceResponse();
+        r.setId(g.getId());
+        r.setTitle(g.getTitle());
+        r.setDescription(g.getDescription());
+        r.setCategory(g.getCategory());
+        r.setState(g.getState());
+        r.setDistrict(g.getDistrict());
+        r.setStatus(g.getStatus());
+        r.setCreatedAt(g.getCreatedAt());
+        if (g.getLocation() != null) {
+            r.setLatitude(g.getLocation().getY());
+            r.setLongitude(g.getLocation().getX());
+        }
+        return r;
+    }
 }
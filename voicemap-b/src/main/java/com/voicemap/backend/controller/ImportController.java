@@ -0,0 +1,41 @@
+package com.voicemap.backend.controller;
+
+import com.voicemap.backend.model.ImportJob;
+import com.voicemap.backend.service.ImportJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Progress and cancellation for background imports started by
+ * POST /api/regions/import and POST /api/pincode/import.
+ */
+@RestController
+@RequestMapping("/api/imports")
+@CrossOrigin("*")
+public class ImportController {
+
+    private final ImportJobService service;
+
+    public ImportController(ImportJobService service) {
+        this.service = service;
+    }
+
+    // GET /api/imports/{id}: status, counters (read, written, skipped), throughput
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJob> get(@PathVariable String id) {
+        return service.get(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    // DELETE /api/imports/{id}: cancel; batches already written are kept
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ImportJob> cancel(@PathVariable String id) {
+        if (!service.cancel(id)) {
+            return service.get(id).isPresent()
+                    ? ResponseEntity.status(409).build()
+                    : ResponseEntity.notFound().build();
+        }
+        return service.get(id)
+                .map(job -> ResponseEntity.accepted().body(job))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
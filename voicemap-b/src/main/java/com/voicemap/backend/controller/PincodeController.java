@@ -1,17 +1,20 @@
 package com.voicemap.backend.controller;
 
 import com.voicemap.backend.model.Pincode;
+import com.voicemap.backend.config.StartupPincodeImporter;
+import com.voicemap.backend.model.ImportJob;
+import com.voicemap.backend.service.ImportJobService;
 import com.voicemap.backend.service.PincodeService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
-
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.util.*;
 
 @RestController
@@ -20,18 +23,25 @@ import java.util.*;
 public class PincodeController {
 
     private final PincodeService service;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ImportJobService importJobService;
+    private final StartupPincodeImporter startupImport;
 
-    public PincodeController(PincodeService service) {
+    public PincodeController(PincodeService service, ImportJobService importJobService,
+                             StartupPincodeImporter startupImport) {
         this.service = service;
+        this.importJobService = importJobService;
+        this.startupImport = startupImport;
     }
 
     // Exact lookup: GET /api/pincode/110001
+    // A miss while the startup import is still running is 503, not 404.
     @GetMapping("/{code}")
     public ResponseEntity<?> getByCode(@PathVariable String code) {
         return service.findByCode(code)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> startupImport.isReady()
+                        ? ResponseEntity.notFound().build()
+                        : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10").build());
     }
 
     // Prefix search: GET /api/pincode/search?q=4000&limit=8
@@ -50,82 +60,25 @@ public class PincodeController {
 
 
     // Optional: import endpoint to upload the GeoJSON file (multipart).
-    // Accepts the format you described. Field 'file'.
+    // Accepts the format you described. Field 'file'. Runs as a background job.
     @PostMapping("/import")
-    public ResponseEntity<String> importGeoJson(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<ImportJob> importGeoJson(@RequestParam("file") MultipartFile file) throws IOException {
         try (InputStream in = file.getInputStream()) {
-            JsonNode root = mapper.readTree(in);
-            if (!root.has("features") || !root.get("features").isArray()) {
-                return ResponseEntity.badRequest().body("Invalid GeoJSON");
-            }
-            int count = 0;
-            for (JsonNode f : root.get("features")) {
-                JsonNode geom = f.get("geometry");
-                JsonNode props = f.get("properties");
-                if (geom == null || !geom.has("coordinates")) continue;
-                JsonNode coords = geom.get("coordinates");
-                double lon = coords.get(0).asDouble();
-                double lat = coords.get(1).asDouble();
-                Pincode p = new Pincode();
-                String code = null;
-                if (props != null && props.has("Pincode")) code = props.get("Pincode").asText();
-                else if (props != null && props.has("PINCODE")) code = props.get("PINCODE").asText();
-                if (code == null) continue;
-                p.setPincode(code);
-                if (props != null && props.has("Office_Name")) p.setOfficeName(props.get("Office_Name").asText());
-                if (props != null && props.has("Division")) p.setDivision(props.get("Division").asText());
-                if (props != null && props.has("Region")) p.setRegion(props.get("Region").asText());
-                if (props != null && props.has("Circle")) p.setCircle(props.get("Circle").asText());
-                p.setLocation(new GeoJsonPoint(lon, lat));
-                service.save(p);
-                count++;
-            }
-            return ResponseEntity.ok("Imported pincodes: " + count);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return ResponseEntity.status(500).body("Import failed: " + ex.getMessage());
+            return accepted(importJobService.submit(ImportJobService.KIND_PINCODE, in, null, null, false));
         }
     }
 
-    // Optional convenience: auto-import at start from resources (triggered manually elsewhere).
+    // Optional convenience: import the bundled resource file as a background job.
     @GetMapping("/import/from-resource")
-    public ResponseEntity<String> importFromResource() {
-        try {
-            ClassPathResource r = new ClassPathResource("data/pincode.points.geojson");
-            if (!r.exists()) return ResponseEntity.badRequest().body("Resource not found");
-            try (InputStream in = r.getInputStream()) {
-                // reuse import logic: call above method functionality
-                JsonNode root = mapper.readTree(in);
-                if (!root.has("features") || !root.get("features").isArray()) {
-                    return ResponseEntity.badRequest().body("Invalid GeoJSON");
-                }
-                int count = 0;
-                for (JsonNode f : root.get("features")) {
-                    JsonNode geom = f.get("geometry");
-                    JsonNode props = f.get("properties");
-                    if (geom == null || !geom.has("coordinates")) continue;
-                    JsonNode coords = geom.get("coordinates");
-                    double lon = coords.get(0).asDouble();
-                    double lat = coords.get(1).asDouble();
-                    Pincode p = new Pincode();
-                    String code = null;
-                    if (props != null && props.has("Pincode")) code = props.get("Pincode").asText();
-                    else if (props != null && props.has("PINCODE")) code = props.get("PINCODE").asText();
-                    if (code == null) continue;
-                    p.setPincode(code);
-                    if (props != null && props.has("Office_Name")) p.setOfficeName(props.get("Office_Name").asText());
-                    if (props != null && props.has("Division")) p.setDivision(props.get("Division").asText());
-                    if (props != null && props.has("Region")) p.setRegion(props.get("Region").asText());
-                    if (props != null && props.has("Circle")) p.setCircle(props.get("Circle").asText());
-                    p.setLocation(new GeoJsonPoint(lon, lat));
-                    service.save(p);
-                    count++;
-                }
-                return ResponseEntity.ok("Imported pincodes: " + count);
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return ResponseEntity.status(500).body("Import failed: " + ex.getMessage());
+    public ResponseEntity<?> importFromResource() throws IOException {
+        ClassPathResource r = new ClassPathResource("data/pincode.points.geojson");
+        if (!r.exists()) return ResponseEntity.badRequest().body("Resource not found");
+        try (InputStream in = r.getInputStream()) {
+            return accepted(importJobService.submit(ImportJobService.KIND_PINCODE, in, "resource", null, false));
         }
     }
+
+    private static ResponseEntity<ImportJob> accepted(ImportJob job) {
+        return ResponseEntity.accepted().location(URI.create("/api/imports/" + job.getId())).body(job);
+    }
 }
\ No newline at end of file
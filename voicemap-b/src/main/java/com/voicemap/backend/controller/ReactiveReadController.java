@@ -0,0 +1,158 @@
+package com.voicemap.backend.controller;
+
+import com.voicemap.backend.config.StartupPincodeImporter;
+import com.voicemap.backend.dto.GrievanceResponse;
+import com.voicemap.backend.dto.RegionSummary;
+import com.voicemap.backend.model.Grievance;
+import com.voicemap.backend.model.Pincode;
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.GrievanceIngestService;
+import com.voicemap.backend.service.ReactiveReadService;
+import com.voicemap.backend.service.SimplifiedGeometryCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+/**
+ * Reactive variants of the region, pincode and grievance read endpoints.
+ *
+ * Handlers return Flux/Mono from ReactiveReadService, so the servlet thread is released
+ * as soon as the query is issued. With Accept: application/x-ndjson lists stream one JSON
+ * object per line as documents arrive, and the Mongo cursor is only advanced as fast as
+ * the client reads; with application/json they are collected into an array.
+ * List limits are clamped to GrievanceController.MAX_PAGE_SIZE.
+ */
+@RestController
+@RequestMapping("/api/stream")
+@CrossOrigin("*")
+public class ReactiveReadController {
+
+    private final ReactiveReadService reads;
+    private final GrievanceIngestService ingest;
+    private final StartupPincodeImporter startupImport;
+    private final SimplifiedGeometryCache geometryCache;
+
+    public ReactiveReadController(ReactiveReadService reads, GrievanceIngestService ingest,
+                                  StartupPincodeImporter startupImport, SimplifiedGeometryCache geometryCache) {
+        this.reads = reads;
+        this.ingest = ingest;
+        this.startupImport = startupImport;
+        this.geometryCache = geometryCache;
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, GrievanceController.MAX_PAGE_SIZE));
+    }
+
+    /** Region summaries of a type (all regions without type); same fields/include as /api/regions/all. */
+    @GetMapping(value = "/regions", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<RegionSummary> regions(
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include
+    ) {
+        Set<String> selected = RegionSummary.select(fields, include);
+        return reads.findRegionsByType(type, RegionSummary.documentFields(selected))
+                .map(r -> RegionSummary.of(r, selected, r.getPackedGeo()));
+    }
+
+    /**
+     * Collection mode of /api/regions/geojson (type, optional simplify and bbox) as a streamed
+     * FeatureCollection: each feature is written as its region arrives from the cursor, and
+     * the cursor advances only as fast as the client reads. Not cached; the bbox filter uses
+     * the stored region bbox.
+     */
+    @GetMapping(value = "/regions/geojson", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<String> regionsGeoJson(
+            @RequestParam String type,
+            @RequestParam(value = "simplify", required = false) Double simplifyTolerance,
+            @RequestParam(required = false) String bbox
+    ) {
+        double[] viewport = BboxParser.parse(bbox);
+        boolean simplify = simplifyTolerance != null && simplifyTolerance > 0;
+        Flux<Region> regions = reads.findRegionsWithGeometry(type, viewport);
+        // simplification is CPU work and may look up the dataset version; keep it off the driver threads
+        if (simplify) regions = regions.publishOn(Schedulers.boundedElastic());
+        Flux<String> features = regions
+                .map(r -> featureJson(r, simplify ? geometryCache.get(r, simplifyTolerance) : r.getPackedGeo()))
+                .index((i, json) -> i == 0 ? json : "," + json);
+        return Flux.concat(Flux.just("{\"type\":\"FeatureCollection\",\"features\":["), features, Flux.just("]}"));
+    }
+
+    private static String featureJson(Region r, Object geometry) {
+        try {
+            return GeoJsonStreamWriter.featureJson(r, geometry);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @GetMapping(value = "/regions/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<RegionSummary> searchRegions(
+            @RequestParam("q") String q,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include
+    ) {
+        Set<String> selected = RegionSummary.select(fields, include);
+        return reads.searchRegions(q, RegionSummary.documentFields(selected))
+                .map(r -> RegionSummary.of(r, selected, r.getPackedGeo()));
+    }
+
+    // a miss while the startup import is still running is 503, as on /api/pincode/{code}
+    @GetMapping("/pincode/{code}")
+    public Mono<ResponseEntity<Pincode>> pincode(@PathVariable String code) {
+        return reads.findPincode(code)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(startupImport.isReady()
+                        ? ResponseEntity.notFound().build()
+                        : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10").build());
+    }
+
+    @GetMapping(value = "/pincode/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Pincode> searchPincodes(@RequestParam("q") String q,
+                                        @RequestParam(value = "limit", defaultValue = "8") int limit) {
+        String cleaned = q.trim();
+        if (cleaned.isEmpty()) return Flux.empty();
+        return reads.searchPincodePrefix(cleaned, clampLimit(limit));
+    }
+
+    /** Newest grievances first, optionally filtered by district and category. */
+    @GetMapping(value = "/grievances", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<GrievanceResponse> grievances(
+            @RequestParam(value = "district", required = false) String district,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        return reads.findGrievances(district, category, clampLimit(limit)).map(GrievanceController::toResponse);
+    }
+
+    @GetMapping("/grievances/{id}")
+    public Mono<ResponseEntity<GrievanceResponse>> grievance(@PathVariable String id) {
+        Grievance queued = ingest.getPending(id);
+        if (queued != null) {
+            GrievanceResponse r = GrievanceController.toResponse(queued);
+            r.setStatus(GrievanceIngestService.STATUS_QUEUED);
+            return Mono.just(ResponseEntity.ok(r));
+        }
+        String failure = ingest.getFailure(id);
+        if (failure != null) {
+            GrievanceResponse r = new GrievanceResponse();
+            r.setId(id);
+            r.setStatus(GrievanceIngestService.STATUS_FAILED);
+            r.setError(failure);
+            return Mono.just(ResponseEntity.ok(r));
+        }
+        return reads.findGrievance(id)
+                .map(g -> ResponseEntity.ok(GrievanceController.toResponse(g)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -1,16 +1,31 @@
 package com.voicemap.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voicemap.backend.dto.RegionSummary;
+import com.voicemap.backend.model.ImportJob;
 import com.voicemap.backend.model.Region;
-import com.voicemap.backend.service.RegionImporter;
+import com.voicemap.backend.service.RegionBatchResolver;
+import com.voicemap.backend.service.ImportJobService;
+import com.voicemap.backend.service.RegionResponseCache;
 import com.voicemap.backend.service.RegionService;
+import com.voicemap.backend.service.RegionTileService;
+import com.voicemap.backend.service.SimplifiedGeometryCache;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/regions")
@@ -19,10 +34,38 @@ import java.util.stream.Collectors;
 public class RegionController {
 
     private final RegionService regionService;
+    private final RegionBatchResolver batchResolver;
+    private final SimplifiedGeometryCache geometryCache;
+    private final RegionResponseCache responseCache;
+    private final RegionTileService tileService;
+    private final ObjectMapper objectMapper;
+    private final ImportJobService importJobService;
 
+    private static final String FORMAT_GEOJSON = "geojson";
+    private static final String FORMAT_TOPOJSON = "topojson";
+    private static final String FORMAT_GEOBUF = "geobuf";
+    private static final MediaType PROTOBUF_MEDIA_TYPE = MediaType.parseMediaType("application/x-protobuf");
+    private static final MediaType GEOBUF_MEDIA_TYPE = MediaType.parseMediaType("application/vnd.geobuf");
+    // responses picked by Accept (GeoJSON or Geobuf) and encoded by Accept-Encoding
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    /**
+     * Region summaries (see RegionSummary): by default id, name, code, type, state,
+     * district, bbox and centroid, read from Mongo with a matching projection.
+     * fields=name,bbox picks other fields; include=geometry adds the GeoJSON boundary.
+     * The same parameters apply to /search and /contains.
+     */
     @GetMapping("/all")
-    public List<Region> getAll() {
-        return regionService.getAllRegions();
+    public ResponseEntity<byte[]> getAll(
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) throws IOException {
+        Set<String> selected = RegionSummary.select(fields, include);
+        RegionResponseCache.CachedBody body = responseCache.get("all|" + String.join(",", selected),
+                out -> objectMapper.writeValue(out, regionService.getAllSummaries(selected)));
+        return cachedResponse(body, MediaType.APPLICATION_JSON, ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/{id}")
@@ -31,8 +74,12 @@ public class RegionController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Region>> search(@RequestParam("q") String q) {
-        return ResponseEntity.ok(regionService.searchByName(q));
+    public ResponseEntity<List<RegionSummary>> search(
+            @RequestParam("q") String q,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include
+    ) {
+        return ResponseEntity.ok(regionService.searchSummaries(q, RegionSummary.select(fields, include)));
     }
 
     /**
@@ -44,14 +91,30 @@ public class RegionController {
      *
      * 2) collection mode: provide type (state|pc|district) and optional simplify
      *    Example: /api/regions/geojson?type=pc&simplify=0.01
+     *    Add bbox=minLon,minLat,maxLon,maxLat to return only regions in the viewport.
+     *
+     * simplify snaps to the nearest level in SimplifiedGeometryCache.LEVELS. Collection
+     * responses are cached per (type, level, dataset version) with gzip and ETag support.
+     * format=topojson returns a Topology with shared, quantized arcs instead (collection
+     * and viewport modes); quantization sets the grid size, default 1e5. Only the grid
+     * sizes in TopoJsonWriter.CACHED_QUANTIZATIONS are cached; others are streamed.
+     * format=geobuf, or an Accept of application/x-protobuf / application/vnd.geobuf,
+     * returns the same collection as Geobuf (protobuf) with 1e-6 degree coordinates and
+     * a per-feature bbox/offset index in the header (see GeobufWriter).
      */
     @GetMapping("/geojson")
-    public Map<String, Object> getGeoJson(
+    public ResponseEntity<?> getGeoJson(
             @RequestParam String type,
             @RequestParam(value = "simplify", required = false) Double simplifyTolerance,
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String id
-    ) {
+            @RequestParam(required = false) String id,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "quantization", required = false) Integer quantizationParam,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) throws IOException {
         // If user provided name or id, return a single-region FeatureCollection
         if (name != null || id != null) {
             Region region = null;
@@ -79,87 +142,214 @@ public class RegionController {
             props.put("source", region.getSource());
             feature.put("properties", props);
 
-            // GEOMETRY - try to keep same conversion/simplify behavior as collection mode
-            Object geometry = region.getGeo();
-            try {
-                geometry = GeoJsonConverter.geoToGeoJsonRaw(region.getGeo());
-            } catch (Exception ignored) {
-                // fallback: keep raw region.getGeo() if conversion not available
-                geometry = region.getGeo();
-            }
-            if (simplifyTolerance != null && simplifyTolerance > 0) {
-                try {
-                    geometry = GeometrySimplifier.simplifyGeometryRaw(geometry, simplifyTolerance);
-                } catch (Exception ignored) {
-                    // if simplification fails, return original geometry
-                }
-            }
-            feature.put("geometry", geometry);
+            // GEOMETRY - same conversion/simplify behavior as collection mode
+            feature.put("geometry", geometryFor(region, simplifyTolerance));
 
             // WRAP IN FeatureCollection
             Map<String, Object> fc = new HashMap<>();
             fc.put("type", "FeatureCollection");
             fc.put("features", List.of(feature));
 
-            return fc;
+            return ResponseEntity.ok(fc);
         }
 
-        // Otherwise, return collection for given type (existing behavior)
-        List<Region> regions = regionService.findByType(type);
+        String fmt = resolveFormat(format, accept);
+        int quantization = quantizationParam == null ? TopoJsonWriter.DEFAULT_QUANTIZATION : quantizationParam;
+        if (quantization < 2 || quantization > 1_000_000_000) {
+            throw new IllegalArgumentException("quantization must be between 2 and 1e9");
+        }
 
-        List<Map<String, Object>> features = regions.stream().map(r -> {
-            Map<String, Object> f = new HashMap<>();
-            f.put("type", "Feature");
+        // Viewport mode: only regions intersecting the bbox, streamed without caching
+        double[] viewport = BboxParser.parse(bbox);
+        if (viewport != null) {
+            List<Region> visible = regionService.findIntersecting(viewport, type);
+            StreamingResponseBody body = out -> writeCollection(out, visible.iterator(), type, fmt,
+                    simplifyTolerance, quantization);
+            return ResponseEntity.ok().contentType(mediaTypeFor(fmt)).header(HttpHeaders.VARY, VARY).body(body);
+        }
 
-            // PROPERTIES — choose what you want to expose
-            Map<String, Object> props = new HashMap<>();
-            props.put("name", r.getName());
-            props.put("state", r.getState());
-            props.put("code", r.getCode());
-            props.put("type", r.getType());
-            props.put("id", r.getId());
-            f.put("properties", props);
-
-            // GEOMETRY from Mongo: GeoJsonMultiPolygon -> raw GeoJSON structure
-            // Optionally simplify before returning
-            Object geometry = GeoJsonConverter.geoToGeoJsonRaw(r.getGeo());
-            if (simplifyTolerance != null && simplifyTolerance > 0) {
-                geometry = GeometrySimplifier.simplifyGeometryRaw(geometry, simplifyTolerance);
+        // Arbitrary grid sizes would each fill a cache slot with a full layer; stream them instead
+        if (FORMAT_TOPOJSON.equals(fmt) && !TopoJsonWriter.CACHED_QUANTIZATIONS.contains(quantization)) {
+            StreamingResponseBody body = out -> {
+                try (Stream<Region> regions = regionService.streamByType(type)) {
+                    writeCollection(out, regions.iterator(), type, fmt, simplifyTolerance, quantization);
+                }
+            };
+            return ResponseEntity.ok().contentType(mediaTypeFor(fmt)).header(HttpHeaders.VARY, VARY).body(body);
+        }
+
+        // Otherwise, serve the collection for the given type from the response cache;
+        // on a miss it is streamed straight from a Mongo cursor into the cache entry
+        String key = fmt + "|" + (FORMAT_TOPOJSON.equals(fmt) ? quantization + "|" : "")
+                + type + "|" + SimplifiedGeometryCache.snap(simplifyTolerance);
+        RegionResponseCache.CachedBody body = responseCache.get(key, out -> {
+            try (Stream<Region> regions = regionService.streamByType(type)) {
+                writeCollection(out, regions.iterator(), type, fmt, simplifyTolerance, quantization);
+            }
+        });
+        return cachedResponse(body, mediaTypeFor(fmt), ifNoneMatch, acceptEncoding);
+    }
+
+    /** An explicit format parameter wins; otherwise Geobuf if the Accept header asks for protobuf. */
+    private static String resolveFormat(String format, String accept) {
+        if (format == null) {
+            if (accept != null && (accept.contains(GEOBUF_MEDIA_TYPE.toString())
+                    || accept.contains(PROTOBUF_MEDIA_TYPE.toString()))) {
+                return FORMAT_GEOBUF;
+            }
+            return FORMAT_GEOJSON;
+        }
+        String f = format.toLowerCase(Locale.ROOT);
+        if (f.equals(FORMAT_GEOJSON) || f.equals(FORMAT_TOPOJSON) || f.equals(FORMAT_GEOBUF)) return f;
+        throw new IllegalArgumentException("Unsupported format: " + format);
+    }
+
+    private static MediaType mediaTypeFor(String format) {
+        return FORMAT_GEOBUF.equals(format) ? PROTOBUF_MEDIA_TYPE : MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Write a collection as GeoJSON, or as TopoJSON with shared arcs. For TopoJSON the
+     * tolerance is applied per arc after topology is built, so neighbours stay gap-free.
+     */
+    private void writeCollection(OutputStream out, Iterator<Region> regions, String type, String format,
+                                 Double simplifyTolerance, int quantization) throws IOException {
+        if (FORMAT_TOPOJSON.equals(format)) {
+            new TopoJsonWriter(type, quantization, SimplifiedGeometryCache.snap(simplifyTolerance))
+                    .write(regions, regionService::packedGeometry, out);
+        } else if (FORMAT_GEOBUF.equals(format)) {
+            new GeobufWriter(GeobufWriter.DEFAULT_PRECISION)
+                    .write(out, regions, r -> geometryObjectFor(r, simplifyTolerance));
+        } else {
+            GeoJsonStreamWriter.writeFeatureCollection(out, regions, r -> geometryObjectFor(r, simplifyTolerance));
+        }
+    }
+
+    /**
+     * Serve a cached body: 304 when If-None-Match matches, otherwise the gzip variant
+     * if the client accepts it, else the identity bytes. Each variant has its own strong ETag.
+     * Vary lists Accept too, since /geojson picks GeoJSON or Geobuf from it.
+     */
+    private static ResponseEntity<byte[]> cachedResponse(RegionResponseCache.CachedBody body, MediaType contentType,
+                                                         String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? body.getGzipEtag() : body.getEtag();
+        if (body.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, VARY)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(contentType)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, VARY);
+        if (gzip) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return ok.body(body.getIdentity());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (!tokens[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < tokens.length; i++) {
+                String t = tokens[i].trim();
+                if (t.equals("q=0") || t.startsWith("q=0.") && t.substring(4).matches("0*")) return false;
             }
-            f.put("geometry", geometry);
+            return true;
+        }
+        return false;
+    }
 
-            return f;
-        }).collect(Collectors.toList());
+    /**
+     * Raw GeoJSON geometry for a region. Simplification requests snap to the nearest
+     * cached tolerance level, so repeated requests do no geometry work.
+     */
+    private Object geometryFor(Region r, Double simplifyTolerance) {
+        if (simplifyTolerance == null || simplifyTolerance <= 0 || r.getGeo() == null) {
+            return GeoJsonConverter.geoToGeoJsonRaw(r.getGeo());
+        }
+        return GeometrySimplifier.geometryToGeoJsonMap(geometryCache.get(r, simplifyTolerance));
+    }
 
-        Map<String, Object> fc = new HashMap<>();
-        fc.put("type", "FeatureCollection");
-        fc.put("features", features);
+    // Same choice as geometryFor, but returns the stored/packed/JTS geometry for the stream writers;
+    // regions from the spatial index have no geo and use its packed boundary
+    private Object geometryObjectFor(Region r, Double simplifyTolerance) {
+        if (simplifyTolerance == null || simplifyTolerance <= 0) {
+            return r.getGeo() != null ? r.getGeo() : regionService.packedGeometry(r);
+        }
+        return geometryCache.get(r, simplifyTolerance);
+    }
 
-        return fc;
+    /**
+     * Mapbox Vector Tile of region boundaries for one type, e.g. /api/regions/tiles/pc/6/45/28.mvt.
+     * Features carry name, code and id; empty tiles are returned as 204.
+     */
+    @GetMapping(value = "/tiles/{type}/{z}/{x}/{y}.mvt", produces = "application/vnd.mapbox-vector-tile")
+    public ResponseEntity<byte[]> tile(
+            @PathVariable String type,
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y
+    ) throws IOException {
+        byte[] tile;
+        try {
+            tile = tileService.getTile(type, z, x, y);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (tile.length == 0) return ResponseEntity.noContent().build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/vnd.mapbox-vector-tile"))
+                .body(tile);
     }
 
     @GetMapping("/contains")
-    public ResponseEntity<List<Region>> contains(
+    public ResponseEntity<List<RegionSummary>> contains(
             @RequestParam("lat") double lat,
             @RequestParam("lng") double lng,
-            @RequestParam(value = "type", required = false) String type
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include
     ) {
-        return ResponseEntity.ok(regionService.findContaining(lat, lng, type));
+        return ResponseEntity.ok(regionService.findContainingSummaries(lat, lng, type, RegionSummary.select(fields, include)));
     }
 
+    /**
+     * Batch reverse-geocoding. Body is a JSON array or NDJSON stream of {"lat":..,"lng":..}
+     * objects (optional "id"); the response is NDJSON, one region chain per input point,
+     * in input order, streamed as each chunk is resolved.
+     */
+    @PostMapping(value = "/contains/batch", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> containsBatch(HttpServletRequest request) {
+        StreamingResponseBody body = out -> {
+            try (InputStream in = request.getInputStream()) {
+                batchResolver.resolve(in, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Start a background import of a GeoJSON FeatureCollection. Returns 202 with the job;
+     * follow progress at /api/imports/{id}. With replace=true the file is the complete set
+     * of its source's regions of each type it contains, and stored ones it lacks are deleted.
+     */
     @PostMapping("/import")
-    public ResponseEntity<String> importGeoJson(
+    public ResponseEntity<ImportJob> importGeoJson(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "source", required = false) String source,
-            @RequestParam(value = "type", required = false) String type
-    ) {
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "replace", defaultValue = "false") boolean replace
+    ) throws IOException {
         try (InputStream in = file.getInputStream()) {
-            RegionImporter importer = new RegionImporter(regionService);
-            int count = importer.importFromGeoJson(in, source, type);
-            return ResponseEntity.ok("Imported regions: " + count);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            return ResponseEntity.status(500).body("Import failed: " + ex.getMessage());
+            ImportJob job = importJobService.submit(ImportJobService.KIND_REGION, in, source, type, replace);
+            return ResponseEntity.accepted().location(URI.create("/api/imports/" + job.getId())).body(job);
         }
     }
 
@@ -0,0 +1,70 @@
+package com.voicemap.backend.controller;
+
+import com.voicemap.backend.model.GrievanceRollup;
+import com.voicemap.backend.service.GrievanceRollupService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grievance counts by region, served from the materialized rollups (see
+ * GrievanceRollupService). Levels are pc, district and state; days are yyyy-MM-dd (UTC).
+ */
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin("*")
+public class StatsController {
+
+    private final GrievanceRollupService rollups;
+
+    public StatsController(GrievanceRollupService rollups) {
+        this.rollups = rollups;
+    }
+
+    // Choropleth: GET /api/stats/pc?category=Roads&status=open&from=2025-01-01&to=2025-03-31
+    // -> { "<regionId>": count, ... } for every region of the level with a non-zero count
+    @GetMapping("/{level}")
+    public ResponseEntity<Map<String, Long>> byRegion(
+            @PathVariable String level,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to
+    ) {
+        return ResponseEntity.ok(rollups.countsByRegion(level, category, status, from, to));
+    }
+
+    // One region by category and day: GET /api/stats/district/{regionId}?from=...&to=...
+    @GetMapping("/{level}/{regionId}")
+    public ResponseEntity<List<GrievanceRollup>> forRegion(
+            @PathVariable String level,
+            @PathVariable String regionId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to
+    ) {
+        return ResponseEntity.ok(rollups.forRegion(level, regionId, from, to));
+    }
+
+    // POST /api/stats/rebuild: recompute all rollups from the grievances (background)
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        boolean started = rollups.startRebuild();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(rebuildStatus());
+    }
+
+    @GetMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildState() {
+        return ResponseEntity.ok(rebuildStatus());
+    }
+
+    private Map<String, Object> rebuildStatus() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("state", rollups.getRebuildState().name().toLowerCase());
+        if (rollups.getRebuildError() != null) body.put("error", rollups.getRebuildError());
+        return body;
+    }
+}
@@ -0,0 +1,374 @@
+package com.voicemap.backend.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.PackedMultiPolygon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Encodes a set of regions as a TopoJSON Topology with shared arcs.
+ *
+ * Coordinates are quantized onto an integer grid first, so borders that neighbouring
+ * regions both store land on identical points. Rings are then cut at junctions (points
+ * whose neighbours differ between rings), identical arcs are stored once and referenced
+ * from both sides (reversed arcs as ~index), and each arc is simplified on its own with
+ * its endpoints fixed, so adjacent polygons stay gap-free. Arcs are written delta-encoded.
+ */
+public class TopoJsonWriter {
+
+    public static final int DEFAULT_QUANTIZATION = 100_000;
+    /** Grid sizes whose full-layer responses are worth caching. */
+    public static final Set<Integer> CACHED_QUANTIZATIONS = Set.of(10_000, DEFAULT_QUANTIZATION, 1_000_000);
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String objectName;
+    private final int quantization;
+    private final double tolerance;
+
+    private final List<Region> regions = new ArrayList<>();
+    private final List<PackedMultiPolygon> geometries = new ArrayList<>();
+    // per region -> polygons -> rings -> quantized cyclic points (closing point dropped)
+    private final List<List<List<long[]>>> rings = new ArrayList<>();
+
+    private double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param objectName name of the GeometryCollection in "objects"
+     * @param quantization grid size per axis (e.g. 1e5)
+     * @param tolerance Douglas-Peucker tolerance in degrees applied to arcs; 0 disables
+     */
+    public TopoJsonWriter(String objectName, int quantization, double tolerance) {
+        this.objectName = objectName;
+        this.quantization = Math.max(2, quantization);
+        this.tolerance = tolerance;
+    }
+
+    /** Encode {@code input}, with each region's boundary from {@code geometryOf}, and write the Topology to {@code out}. */
+    public void write(Iterator<Region> input, Function<Region, PackedMultiPolygon> geometryOf,
+                      OutputStream out) throws IOException {
+        while (input.hasNext()) {
+            Region r = input.next();
+            PackedMultiPolygon g = geometryOf.apply(r);
+            regions.add(r);
+            geometries.add(g);
+            for (int k = 0; k < g.getNumRings(); k++) {
+                for (int i = 0, n = g.getNumPoints(k); i < n; i++) {
+                    double x = g.getX(k, i), y = g.getY(k, i);
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                    if (y < minY) minY = y;
+                    if (y > maxY) maxY = y;
+                }
+            }
+        }
+        if (minX > maxX) {
+            minX = minY = maxX = maxY = 0;
+        }
+        double kx = maxX > minX ? (quantization - 1) / (maxX - minX) : 1;
+        double ky = maxY > minY ? (quantization - 1) / (maxY - minY) : 1;
+
+        for (PackedMultiPolygon g : geometries) rings.add(quantize(g, kx, ky));
+
+        Set<Long> junctions = findJunctions();
+        Arcs arcs = new Arcs();
+        // region -> polygon -> ring -> arc refs
+        List<List<List<int[]>>> refs = new ArrayList<>();
+        for (List<List<long[]>> polys : rings) {
+            List<List<int[]>> regionRefs = new ArrayList<>();
+            for (List<long[]> poly : polys) {
+                List<int[]> polyRefs = new ArrayList<>();
+                for (long[] ring : poly) polyRefs.add(cut(ring, junctions, arcs));
+                regionRefs.add(polyRefs);
+            }
+            refs.add(regionRefs);
+        }
+
+        double tolQ = tolerance > 0 ? tolerance * Math.min(kx, ky) : 0;
+        try (JsonGenerator gen = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("type", "Topology");
+            gen.writeArrayFieldStart("bbox");
+            gen.writeNumber(minX);
+            gen.writeNumber(minY);
+            gen.writeNumber(maxX);
+            gen.writeNumber(maxY);
+            gen.writeEndArray();
+
+            gen.writeObjectFieldStart("transform");
+            gen.writeArrayFieldStart("scale");
+            gen.writeNumber(1 / kx);
+            gen.writeNumber(1 / ky);
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("translate");
+            gen.writeNumber(minX);
+            gen.writeNumber(minY);
+            gen.writeEndArray();
+            gen.writeEndObject();
+
+            gen.writeObjectFieldStart("objects");
+            gen.writeObjectFieldStart(objectName);
+            gen.writeStringField("type", "GeometryCollection");
+            gen.writeArrayFieldStart("geometries");
+            for (int i = 0; i < regions.size(); i++) writeGeometry(gen, regions.get(i), refs.get(i));
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndObject();
+
+            gen.writeArrayFieldStart("arcs");
+            for (long[] arc : arcs.list) writeArc(gen, tolQ > 0 ? simplify(arc, tolQ) : arc);
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    private List<List<long[]>> quantize(PackedMultiPolygon g, double kx, double ky) {
+        List<List<long[]>> polys = new ArrayList<>();
+        for (int p = 0; p < g.getNumPolygons(); p++) {
+            List<long[]> out = new ArrayList<>();
+            for (int k = g.getFirstRing(p), end = k + g.getNumRings(p); k < end; k++) {
+                long[] q = new long[g.getNumPoints(k)];
+                int n = 0;
+                for (int i = 0; i < q.length; i++) {
+                    long key = pack(Math.round((g.getX(k, i) - minX) * kx), Math.round((g.getY(k, i) - minY) * ky));
+                    if (n > 0 && q[n - 1] == key) continue;
+                    q[n++] = key;
+                }
+                if (n > 1 && q[0] == q[n - 1]) n--;
+                if (n >= 3) out.add(Arrays.copyOf(q, n));
+            }
+            if (!out.isEmpty()) polys.add(out);
+        }
+        return polys;
+    }
+
+    /** A point is a junction when two ring occurrences disagree on its neighbours. */
+    private Set<Long> findJunctions() {
+        Map<Long, long[]> neighbours = new HashMap<>();
+        Set<Long> junctions = new HashSet<>();
+        for (List<List<long[]>> polys : rings) {
+            for (List<long[]> poly : polys) {
+                for (long[] ring : poly) {
+                    int n = ring.length;
+                    for (int i = 0; i < n; i++) {
+                        long p = ring[i];
+                        long a = ring[(i + n - 1) % n];
+                        long b = ring[(i + 1) % n];
+                        long[] seen = neighbours.putIfAbsent(p, new long[]{a, b});
+                        if (seen != null && !((seen[0] == a && seen[1] == b) || (seen[0] == b && seen[1] == a))) {
+                            junctions.add(p);
+                        }
+                    }
+                }
+            }
+        }
+        return junctions;
+    }
+
+    /** Split a cyclic ring at junctions and return its arc references. */
+    private static int[] cut(long[] ring, Set<Long> junctions, Arcs arcs) {
+        int n = ring.length;
+        int start = -1;
+        for (int i = 0; i < n; i++) {
+            if (junctions.contains(ring[i])) {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0) {
+            // no junctions: the whole ring is one closed arc, rotated to a canonical start
+            return new int[]{arcs.closed(ring)};
+        }
+
+        List<Integer> out = new ArrayList<>();
+        List<Long> current = new ArrayList<>();
+        current.add(ring[start]);
+        for (int k = 1; k <= n; k++) {
+            long p = ring[(start + k) % n];
+            current.add(p);
+            if (k == n || junctions.contains(p)) {
+                long[] arc = new long[current.size()];
+                for (int j = 0; j < arc.length; j++) arc[j] = current.get(j);
+                out.add(arcs.open(arc));
+                current.clear();
+                current.add(p);
+            }
+        }
+        int[] result = new int[out.size()];
+        for (int i = 0; i < result.length; i++) result[i] = out.get(i);
+        return result;
+    }
+
+    /** Deduplicating arc store; a reversed match is referenced as ~index. */
+    private static final class Arcs {
+        final List<long[]> list = new ArrayList<>();
+        final Map<ArcKey, Integer> index = new HashMap<>();
+
+        int open(long[] arc) {
+            Integer fwd = index.get(new ArcKey(arc));
+            if (fwd != null) return fwd;
+            Integer rev = index.get(new ArcKey(reverse(arc)));
+            if (rev != null) return ~rev;
+            return add(arc);
+        }
+
+        int closed(long[] ring) {
+            long[] fwd = closedCanonical(ring);
+            Integer hit = index.get(new ArcKey(fwd));
+            if (hit != null) return hit;
+            Integer rev = index.get(new ArcKey(closedCanonical(reverse(ring))));
+            if (rev != null) return ~rev;
+            return add(fwd);
+        }
+
+        private int add(long[] arc) {
+            list.add(arc);
+            index.put(new ArcKey(arc), list.size() - 1);
+            return list.size() - 1;
+        }
+
+        // rotate so the smallest point comes first, then close the ring
+        private static long[] closedCanonical(long[] ring) {
+            int min = 0;
+            for (int i = 1; i < ring.length; i++) if (ring[i] < ring[min]) min = i;
+            long[] out = new long[ring.length + 1];
+            for (int i = 0; i < ring.length; i++) out[i] = ring[(min + i) % ring.length];
+            out[ring.length] = out[0];
+            return out;
+        }
+
+        private static long[] reverse(long[] a) {
+            long[] r = new long[a.length];
+            for (int i = 0; i < a.length; i++) r[i] = a[a.length - 1 - i];
+            return r;
+        }
+    }
+
+    private static final class ArcKey {
+        final long[] pts;
+        final int hash;
+
+        ArcKey(long[] pts) {
+            this.pts = pts;
+            this.hash = Arrays.hashCode(pts);
+        }
+
+        @Override public int hashCode() { return hash; }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof ArcKey k && Arrays.equals(pts, k.pts);
+        }
+    }
+
+    // ---- output ----
+
+    private void writeGeometry(JsonGenerator gen, Region r, List<List<int[]>> polys) throws IOException {
+        gen.writeStartObject();
+        if (polys.isEmpty()) {
+            gen.writeNullField("type");
+        } else {
+            gen.writeStringField("type", "MultiPolygon");
+            gen.writeArrayFieldStart("arcs");
+            for (List<int[]> poly : polys) {
+                gen.writeStartArray();
+                for (int[] ring : poly) gen.writeArray(ring, 0, ring.length);
+                gen.writeEndArray();
+            }
+            gen.writeEndArray();
+        }
+        gen.writeStringField("id", r.getId());
+        gen.writeObjectFieldStart("properties");
+        gen.writeStringField("name", r.getName());
+        gen.writeStringField("state", r.getState());
+        gen.writeStringField("code", r.getCode());
+        gen.writeStringField("type", r.getType());
+        gen.writeStringField("id", r.getId());
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private static void writeArc(JsonGenerator gen, long[] arc) throws IOException {
+        gen.writeStartArray();
+        long px = 0, py = 0;
+        for (long p : arc) {
+            long x = p >> 32;
+            long y = (int) p;
+            gen.writeStartArray();
+            gen.writeNumber(x - px);
+            gen.writeNumber(y - py);
+            gen.writeEndArray();
+            px = x;
+            py = y;
+        }
+        gen.writeEndArray();
+    }
+
+    /** Douglas-Peucker on quantized points, keeping both endpoints (junctions stay put). */
+    static long[] simplify(long[] arc, double tol) {
+        int n = arc.length;
+        if (n <= 2) return arc;
+        boolean[] keep = new boolean[n];
+        keep[0] = keep[n - 1] = true;
+        int[] stack = new int[n * 2];
+        int sp = 0;
+        stack[sp++] = 0;
+        stack[sp++] = n - 1;
+        double tol2 = tol * tol;
+        while (sp > 0) {
+            int last = stack[--sp];
+            int first = stack[--sp];
+            double maxD = -1;
+            int idx = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = segmentDistance2(arc[i], arc[first], arc[last]);
+                if (d > maxD) {
+                    maxD = d;
+                    idx = i;
+                }
+            }
+            if (idx >= 0 && maxD > tol2) {
+                keep[idx] = true;
+                stack[sp++] = first;
+                stack[sp++] = idx;
+                stack[sp++] = idx;
+                stack[sp++] = last;
+            }
+        }
+        int count = 0;
+        for (boolean k : keep) if (k) count++;
+        // closed arcs need at least four points to remain a ring
+        if (arc[0] == arc[n - 1] && count < 4) return arc;
+        long[] out = new long[count];
+        for (int i = 0, j = 0; i < n; i++) if (keep[i]) out[j++] = arc[i];
+        return out;
+    }
+
+    private static double segmentDistance2(long p, long a, long b) {
+        double px = p >> 32, py = (int) p;
+        double ax = a >> 32, ay = (int) a;
+        double bx = b >> 32, by = (int) b;
+        double dx = bx - ax, dy = by - ay;
+        double len2 = dx * dx + dy * dy;
+        double t = len2 == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / len2));
+        double cx = ax + t * dx - px, cy = ay + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+
+    private static long pack(long x, long y) {
+        return (x << 32) | (y & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,26 @@
+package com.voicemap.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One coordinate in a batch reverse-geocoding request.
+ * {@code id} is an optional client reference echoed back in the result.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchPoint {
+
+    private String id;
+    private Double lat;
+    @JsonAlias("lon")
+    private Double lng;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Double getLat() { return lat; }
+    public void setLat(Double lat) { this.lat = lat; }
+
+    public Double getLng() { return lng; }
+    public void setLng(Double lng) { this.lng = lng; }
+}
@@ -0,0 +1,33 @@
+package com.voicemap.backend.dto;
+
+/**
+ * Result line for one point of a batch reverse-geocoding request.
+ * {@code index} is the position of the point in the request.
+ */
+public class BatchPointResult {
+
+    private long index;
+    private String id;
+    private Double lat;
+    private Double lng;
+    private RegionChain regions;
+    private String error;
+
+    public long getIndex() { return index; }
+    public void setIndex(long index) { this.index = index; }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Double getLat() { return lat; }
+    public void setLat(Double lat) { this.lat = lat; }
+
+    public Double getLng() { return lng; }
+    public void setLng(Double lng) { this.lng = lng; }
+
+    public RegionChain getRegions() { return regions; }
+    public void setRegions(RegionChain regions) { this.regions = regions; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
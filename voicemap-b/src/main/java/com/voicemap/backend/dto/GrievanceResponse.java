@@ -1,5 +1,7 @@
 package com.voicemap.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.Instant;
 
 public class GrievanceResponse {
@@ -13,6 +15,8 @@ public class GrievanceResponse {
     private Instant createdAt;
     private Double latitude;
     private Double longitude;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error; // set when a queued grievance could not be written
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -43,4 +47,7 @@ public class GrievanceResponse {
 
     public Double getLongitude() { return longitude; }
     public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
 }
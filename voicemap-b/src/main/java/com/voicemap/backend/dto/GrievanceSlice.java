@@ -0,0 +1,27 @@
+package com.voicemap.backend.dto;
+
+import java.util.List;
+
+/**
+ * One page of the grievance listing. There is no total or page number; pass {@code next}
+ * back as cursor= to get the following page. next is null on the last page.
+ */
+public class GrievanceSlice {
+
+    private final List<GrievanceResponse> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String next;
+
+    public GrievanceSlice(List<GrievanceResponse> content, int size, boolean hasNext, String next) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.next = next;
+    }
+
+    public List<GrievanceResponse> getContent() { return content; }
+    public int getSize() { return size; }
+    public boolean isHasNext() { return hasNext; }
+    public String getNext() { return next; }
+}
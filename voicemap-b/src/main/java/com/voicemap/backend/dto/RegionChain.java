@@ -0,0 +1,62 @@
+package com.voicemap.backend.dto;
+
+import java.util.List;
+
+/**
+ * Region IDs containing a point, one per administrative level.
+ * Levels that could not be resolved are left null.
+ */
+public class RegionChain {
+
+    /** Levels from smallest to largest. */
+    public static final List<String> LEVELS = List.of("ward", "ac", "pc", "district", "state");
+
+    private String wardId;
+    private String acId;
+    private String pcId;
+    private String districtId;
+    private String stateId;
+
+    public RegionChain() {}
+
+    /** Id for a level name ("ward", "ac", ...); null for unknown levels. */
+    public String get(String level) {
+        if (level == null) return null;
+        switch (level.toLowerCase()) {
+            case "ward": return wardId;
+            case "ac": return acId;
+            case "pc": return pcId;
+            case "district": return districtId;
+            case "state": return stateId;
+            default: return null;
+        }
+    }
+
+    /** Set the id for a level name; unknown levels are ignored. */
+    public void set(String level, String id) {
+        if (level == null) return;
+        switch (level.toLowerCase()) {
+            case "ward": wardId = id; break;
+            case "ac": acId = id; break;
+            case "pc": pcId = id; break;
+            case "district": districtId = id; break;
+            case "state": stateId = id; break;
+            default: break;
+        }
+    }
+
+    public String getWardId() { return wardId; }
+    public void setWardId(String wardId) { this.wardId = wardId; }
+
+    public String getAcId() { return acId; }
+    public void setAcId(String acId) { this.acId = acId; }
+
+    public String getPcId() { return pcId; }
+    public void setPcId(String pcId) { this.pcId = pcId; }
+
+    public String getDistrictId() { return districtId; }
+    public void setDistrictId(String districtId) { this.districtId = districtId; }
+
+    public String getStateId() { return stateId; }
+    public void setStateId(String stateId) { this.stateId = stateId; }
+}
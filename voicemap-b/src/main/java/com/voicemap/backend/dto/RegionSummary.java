@@ -0,0 +1,137 @@
+package com.voicemap.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.PackedMultiPolygon;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Geometry-free view of a region for list-style endpoints (/all, /search, /contains).
+ *
+ * Only the requested fields are set and null fields are omitted from JSON. Field names
+ * match the stored document, so the same set doubles as the Mongo projection. geometry
+ * is opt-in and written as a GeoJSON MultiPolygon.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegionSummary {
+
+    /** Fields that can be requested with fields=; id is always returned. */
+    public static final List<String> FIELDS = List.of("name", "code", "type", "state", "district", "parentId",
+            "bbox", "centroid", "source", "sourceYear", "verified", "createdAt");
+    public static final List<String> DEFAULT_FIELDS = List.of("name", "code", "type", "state", "district",
+            "bbox", "centroid");
+    public static final String GEOMETRY = "geometry";
+
+    private String id;
+    private String name;
+    private String code;
+    private String type;
+    private String state;
+    private String district;
+    private String parentId;
+    private double[] bbox;
+    private double[] centroid;
+    private String source;
+    private Integer sourceYear;
+    private Boolean verified;
+    private Instant createdAt;
+    @JsonSerialize(using = GeoJsonSerializer.class)
+    private PackedMultiPolygon geometry;
+
+    /**
+     * Parse a fields= value (comma separated) into the set to return; null or blank gives
+     * DEFAULT_FIELDS. "geometry" may be listed here as well as via include=.
+     */
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return new LinkedHashSet<>(DEFAULT_FIELDS);
+        Set<String> out = new LinkedHashSet<>();
+        for (String f : fields.split(",")) {
+            String name = f.trim();
+            if (name.isEmpty() || name.equals("id")) continue;
+            if (!FIELDS.contains(name) && !name.equals(GEOMETRY)) {
+                throw new IllegalArgumentException("Unknown field: " + name + " (allowed: " + FIELDS + ")");
+            }
+            out.add(name);
+        }
+        return out;
+    }
+
+    /** Whether an include= value (comma separated) asks for geometry. */
+    public static boolean includesGeometry(String include) {
+        if (include == null || include.isBlank()) return false;
+        boolean geometry = false;
+        for (String part : include.split(",")) {
+            String name = part.trim().toLowerCase(Locale.ROOT);
+            if (name.equals(GEOMETRY)) geometry = true;
+            else if (!name.isEmpty()) throw new IllegalArgumentException("Unsupported include: " + part.trim());
+        }
+        return geometry;
+    }
+
+    /** Summary fields selected by a fields= and an include= value. */
+    public static Set<String> select(String fields, String include) {
+        Set<String> selected = parseFields(fields);
+        if (includesGeometry(include)) selected.add(GEOMETRY);
+        return selected;
+    }
+
+    /** Stored document fields to project for a set of summary fields. */
+    public static List<String> documentFields(Set<String> fields) {
+        List<String> out = new ArrayList<>(fields.size() + 1);
+        for (String f : fields) out.add(f.equals(GEOMETRY) ? "geo" : f);
+        return out;
+    }
+
+    /** Copy the requested fields of {@code r}; geometry is set only when requested. */
+    public static RegionSummary of(Region r, Set<String> fields, PackedMultiPolygon geometry) {
+        RegionSummary s = new RegionSummary();
+        s.id = r.getId();
+        if (fields.contains("name")) s.name = r.getName();
+        if (fields.contains("code")) s.code = r.getCode();
+        if (fields.contains("type")) s.type = r.getType();
+        if (fields.contains("state")) s.state = r.getState();
+        if (fields.contains("district")) s.district = r.getDistrict();
+        if (fields.contains("parentId")) s.parentId = r.getParentId();
+        if (fields.contains("bbox")) s.bbox = r.getBbox();
+        if (fields.contains("centroid")) s.centroid = r.getCentroid();
+        if (fields.contains("source")) s.source = r.getSource();
+        if (fields.contains("sourceYear")) s.sourceYear = r.getSourceYear();
+        if (fields.contains("verified")) s.verified = r.isVerified();
+        if (fields.contains("createdAt")) s.createdAt = r.getCreatedAt();
+        if (fields.contains(GEOMETRY)) s.geometry = geometry;
+        return s;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public String getCode() { return code; }
+    public String getType() { return type; }
+    public String getState() { return state; }
+    public String getDistrict() { return district; }
+    public String getParentId() { return parentId; }
+    public double[] getBbox() { return bbox; }
+    public double[] getCentroid() { return centroid; }
+    public String getSource() { return source; }
+    public Integer getSourceYear() { return sourceYear; }
+    public Boolean getVerified() { return verified; }
+    public Instant getCreatedAt() { return createdAt; }
+    public PackedMultiPolygon getGeometry() { return geometry; }
+
+    public static class GeoJsonSerializer extends JsonSerializer<PackedMultiPolygon> {
+        @Override
+        public void serialize(PackedMultiPolygon value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            value.writeGeoJson(gen);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.voicemap.backend.model;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
@@ -58,6 +60,7 @@ public class Grievance {
     private Instant createdAt = Instant.now();
 
     // GeoJSON point for [longitude, latitude]
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
     private GeoJsonPoint location;
 
     // --- Constructors ---
@@ -75,6 +78,7 @@ public class Grievance {
 
     // --- Getters & Setters ---
     public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
 
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
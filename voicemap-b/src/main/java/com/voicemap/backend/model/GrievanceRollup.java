@@ -0,0 +1,50 @@
+package com.voicemap.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grievance count for one region at one level, one category and one UTC day, maintained
+ * incrementally by GrievanceRollupService. byStatus splits count by grievance status.
+ * The id is the key itself ("level|regionId|category|day"), so updates are id upserts.
+ */
+@Document(collection = "grievance_rollups")
+public class GrievanceRollup {
+
+    @Id
+    private String id;
+
+    private String level;      // pc | district | state
+    private String regionId;
+    private String category;   // null for uncategorised grievances
+    private String day;        // yyyy-MM-dd, UTC
+    private long count;
+    private Map<String, Long> byStatus = new HashMap<>();
+
+    public GrievanceRollup() {}
+
+    // --- getters & setters ---
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getLevel() { return level; }
+    public void setLevel(String level) { this.level = level; }
+
+    public String getRegionId() { return regionId; }
+    public void setRegionId(String regionId) { this.regionId = regionId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getDay() { return day; }
+    public void setDay(String day) { this.day = day; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public Map<String, Long> getByStatus() { return byStatus; }
+    public void setByStatus(Map<String, Long> byStatus) { this.byStatus = byStatus; }
+}
@@ -0,0 +1,124 @@
+package com.voicemap.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A background GeoJSON import. The document doubles as the checkpoint: committedFeatures
+ * is the number of input features already written, so an interrupted job resumes there.
+ * owner is the instance running it, which refreshes heartbeatAt while it does.
+ */
+@Document(collection = "import_jobs")
+public class ImportJob {
+
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+    public static final String CANCELLED = "cancelled";
+
+    @Id
+    private String id;
+
+    private String kind;          // region | pincode
+    private String status = QUEUED;
+    private String source;
+    private String regionType;
+    private boolean replace;      // region jobs: delete stored regions the input no longer has
+    private String file;          // spooled upload, kept until the job finishes
+    private String owner;         // instance id of the process running the job
+    private Instant heartbeatAt;  // last sign of life from the owner
+
+    private long featuresRead;
+    private long featuresWritten;
+    private long featuresSkipped;
+    private long featuresUnchanged;
+    private long removed;
+    private long committedFeatures;
+    private List<String> failures = new ArrayList<>();
+    private String error;
+
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    public ImportJob() {}
+
+    public boolean isActive() {
+        return QUEUED.equals(status) || RUNNING.equals(status);
+    }
+
+    /** Features written per second over the run so far. */
+    public double getThroughput() {
+        if (startedAt == null) return 0;
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long ms = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return featuresWritten * 1000.0 / ms;
+    }
+
+    // --- getters & setters ---
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getRegionType() { return regionType; }
+    public void setRegionType(String regionType) { this.regionType = regionType; }
+
+    public boolean isReplace() { return replace; }
+    public void setReplace(boolean replace) { this.replace = replace; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public Instant getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(Instant heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+
+    public long getFeaturesRead() { return featuresRead; }
+    public void setFeaturesRead(long featuresRead) { this.featuresRead = featuresRead; }
+
+    public long getFeaturesWritten() { return featuresWritten; }
+    public void setFeaturesWritten(long featuresWritten) { this.featuresWritten = featuresWritten; }
+
+    public long getFeaturesSkipped() { return featuresSkipped; }
+    public void setFeaturesSkipped(long featuresSkipped) { this.featuresSkipped = featuresSkipped; }
+
+    public long getFeaturesUnchanged() { return featuresUnchanged; }
+    public void setFeaturesUnchanged(long featuresUnchanged) { this.featuresUnchanged = featuresUnchanged; }
+
+    public long getRemoved() { return removed; }
+    public void setRemoved(long removed) { this.removed = removed; }
+
+    public long getCommittedFeatures() { return committedFeatures; }
+    public void setCommittedFeatures(long committedFeatures) { this.committedFeatures = committedFeatures; }
+
+    public List<String> getFailures() { return failures; }
+    public void setFailures(List<String> failures) { this.failures = failures; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+
+    public Instant getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Instant finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -1,5 +1,6 @@
 package com.voicemap.backend.model;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -20,7 +21,7 @@ public class Pincode {
     private String circle;
 
     // store as GeoJSON Point (lon, lat)
-    @GeoSpatialIndexed //(type = GeoSpatialIndexed.GeoSpatialIndexType.GEO_2DSPHERE)
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
     private GeoJsonPoint location;
 
     public Pincode() {}
@@ -1,6 +1,9 @@
 package com.voicemap.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.voicemap.backend.service.PackedMultiPolygon;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.geo.GeoJsonMultiPolygon;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -24,9 +27,14 @@ public class Region {
     private String parentId;
     private Map<String, Object> meta;
     private Instant createdAt;
+    private Instant updatedAt;  // set by every write, so the snapshot stamp sees edits
     private String source;
+    private String sourceId;   // the feature's id within its source file (e.g. pc_id)
     private Integer sourceYear;
     private boolean verified = false;
+    private String fingerprint; // hash of imported geometry + properties, see RegionFingerprint
+    @Transient
+    private PackedMultiPolygon packedGeo; // set instead of geo when read through RegionCodec
 
     public Region() {}
 
@@ -67,12 +75,25 @@ public class Region {
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
     public String getSource() { return source; }
     public void setSource(String source) { this.source = source; }
 
+    public String getSourceId() { return sourceId; }
+    public void setSourceId(String sourceId) { this.sourceId = sourceId; }
+
     public Integer getSourceYear() { return sourceYear; }
     public void setSourceYear(Integer sourceYear) { this.sourceYear = sourceYear; }
 
     public boolean isVerified() { return verified; }
     public void setVerified(boolean verified) { this.verified = verified; }
+
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+    @JsonIgnore
+    public PackedMultiPolygon getPackedGeo() { return packedGeo; }
+    public void setPackedGeo(PackedMultiPolygon packedGeo) { this.packedGeo = packedGeo; }
 }
\ No newline at end of file
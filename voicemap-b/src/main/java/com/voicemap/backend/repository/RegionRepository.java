@@ -12,6 +12,5 @@ import java.util.Optional;
 public interface RegionRepository extends MongoRepository<Region, String> {
     List<Region> findByType(String type);
     List<Region> findByTypeAndState(String type, String state);
-    List<Region> findByNameRegexIgnoreCase(String regex);
     Optional<Region> findByTypeAndNameIgnoreCase(String type, String name);
 }
\ No newline at end of file
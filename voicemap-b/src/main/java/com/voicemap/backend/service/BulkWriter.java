@@ -0,0 +1,98 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Buffers documents and writes them in unordered bulk batches.
+ *
+ * Documents with a key (see {@code upsertKey}) are upserted with {@code upsertUpdate},
+ * so fields the update does not mention survive on an existing document; documents
+ * without a key are plain inserts. A failing document
+ * does not stop the rest of its batch; it is recorded in {@link #getFailures()} under
+ * the label it was added with. Call {@link #flush()} once input is exhausted.
+ */
+public class BulkWriter<T> {
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<T> type;
+    private final int batchSize;
+    private final Function<T, Query> upsertKey;
+    private final Function<T, Update> upsertUpdate;
+    private final Runnable afterFlush;
+
+    private final List<T> docs = new ArrayList<>();
+    private final List<String> labels = new ArrayList<>();
+    private final List<String> failures = new ArrayList<>();
+    private int written = 0;
+
+    /** Insert-only writer. */
+    public BulkWriter(MongoTemplate mongoTemplate, Class<T> type, int batchSize) {
+        this(mongoTemplate, type, batchSize, doc -> null, null, null);
+    }
+
+    public BulkWriter(MongoTemplate mongoTemplate, Class<T> type, int batchSize,
+                      Function<T, Query> upsertKey, Function<T, Update> upsertUpdate, Runnable afterFlush) {
+        this.mongoTemplate = mongoTemplate;
+        this.type = type;
+        this.batchSize = Math.max(1, batchSize);
+        this.upsertKey = upsertKey;
+        this.upsertUpdate = upsertUpdate;
+        this.afterFlush = afterFlush;
+    }
+
+    public void add(T doc, String label) {
+        docs.add(doc);
+        labels.add(label);
+        if (docs.size() >= batchSize) flush();
+    }
+
+    /** Write whatever is buffered. */
+    public void flush() {
+        if (docs.isEmpty()) return;
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        for (T doc : docs) {
+            Query key = upsertKey.apply(doc);
+            if (key == null) ops.insert(doc);
+            else ops.upsert(key, upsertUpdate.apply(doc));
+        }
+        try {
+            ops.execute();
+            written += docs.size();
+        } catch (BulkOperationException ex) {
+            List<BulkWriteError> errors = ex.getErrors();
+            written += docs.size() - errors.size();
+            for (BulkWriteError e : errors) {
+                String failure = labels.get(e.getIndex()) + ": " + e.getMessage();
+                failures.add(failure);
+                System.out.println("Bulk write failed for " + failure);
+            }
+        } finally {
+            docs.clear();
+            labels.clear();
+            if (afterFlush != null) afterFlush.run();
+        }
+    }
+
+    /** Documents buffered but not yet flushed; zero right after a flush. */
+    public int getPending() {
+        return docs.size();
+    }
+
+    /** Documents acknowledged by the server so far. */
+    public int getWritten() {
+        return written;
+    }
+
+    public List<String> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,106 @@
+package com.voicemap.backend.service;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.impl.CoordinateArraySequence;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Read-only 2D CoordinateSequence over interleaved x/y doubles in a DoubleBuffer.
+ *
+ * The buffer is either a wrapped heap array (PackedMultiPolygon) or a view of a
+ * memory-mapped file (RegionSnapshotStore); either way JTS reads vertices in place
+ * instead of from per-vertex Coordinate objects. Code that asks for Coordinates
+ * ({@link #getCoordinate(int)}, {@link #toCoordinateArray()}, e.g. JTS PreparedGeometry
+ * and most overlay operations) gets fresh heap copies, which is why the spatial index
+ * tests points with PackedPolygonLocator instead.
+ */
+public class DoubleBufferCoordinateSequence implements CoordinateSequence {
+
+    private final DoubleBuffer buf;
+    private final int offset; // index of the first x in buf
+    private final int size;
+
+    public DoubleBufferCoordinateSequence(DoubleBuffer buf, int offset, int size) {
+        this.buf = buf;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public int getDimension() {
+        return 2;
+    }
+
+    @Override
+    public Coordinate getCoordinate(int i) {
+        return new Coordinate(getX(i), getY(i));
+    }
+
+    @Override
+    public Coordinate getCoordinateCopy(int i) {
+        return getCoordinate(i);
+    }
+
+    @Override
+    public void getCoordinate(int index, Coordinate coord) {
+        coord.x = getX(index);
+        coord.y = getY(index);
+    }
+
+    @Override
+    public double getX(int index) {
+        return buf.get(offset + index * 2);
+    }
+
+    @Override
+    public double getY(int index) {
+        return buf.get(offset + index * 2 + 1);
+    }
+
+    @Override
+    public double getOrdinate(int index, int ordinateIndex) {
+        return switch (ordinateIndex) {
+            case X -> getX(index);
+            case Y -> getY(index);
+            default -> Double.NaN;
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void setOrdinate(int index, int ordinateIndex, double value) {
+        throw new UnsupportedOperationException("Packed coordinates are read-only");
+    }
+
+    @Override
+    public Coordinate[] toCoordinateArray() {
+        Coordinate[] out = new Coordinate[size];
+        for (int i = 0; i < size; i++) out[i] = getCoordinate(i);
+        return out;
+    }
+
+    @Override
+    public Envelope expandEnvelope(Envelope env) {
+        for (int i = 0; i < size; i++) env.expandToInclude(getX(i), getY(i));
+        return env;
+    }
+
+    @Override
+    @Deprecated
+    public Object clone() {
+        return copy();
+    }
+
+    /** A mutable heap copy, for the few JTS operations that edit coordinates in place. */
+    @Override
+    public CoordinateSequence copy() {
+        return new CoordinateArraySequence(toCoordinateArray());
+    }
+}
@@ -5,6 +5,7 @@ import org.locationtech.jts.geom.*;
 import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
 import org.locationtech.jts.operation.valid.IsValidOp;
 import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
 import org.springframework.data.mongodb.core.geo.GeoJsonMultiPolygon;
 import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
 
@@ -32,52 +33,68 @@ import java.util.List;
          * Convert GeoJSON geometry node → GeoJsonMultiPolygon, sanitizing and simplifying.
          */
         public static GeoJsonMultiPolygon toMultiPolygon(JsonNode geom) throws IllegalArgumentException {
+            List<GeoJsonPolygon> polygons = new ArrayList<>();
+            for (Coordinate[] shell : cleanShells(geom)) {
+                List<Point> pts = new ArrayList<>(shell.length);
+                for (Coordinate c : shell) pts.add(new Point(c.x, c.y)); // Point expects (x=lon, y=lat)
+                polygons.add(new GeoJsonPolygon(pts));
+            }
+            return new GeoJsonMultiPolygon(polygons);
+        }
+
+        /**
+         * Same rings as {@link #toMultiPolygon}, packed straight into primitive arrays
+         * (no GeoJsonPolygon / Point objects); RegionCodec writes them to BSON as is.
+         */
+        public static PackedMultiPolygon toPacked(JsonNode geom) throws IllegalArgumentException {
+            PackedMultiPolygon.Builder b = new PackedMultiPolygon.Builder();
+            for (Coordinate[] shell : cleanShells(geom)) {
+                b.startPolygon();
+                b.startRing();
+                for (Coordinate c : shell) b.addPoint(c.x, c.y);
+                b.endRing();
+                b.endPolygon();
+            }
+            return b.build();
+        }
+
+        // Exterior rings of the sanitized polygons. Holes are not supported by GeoJsonPolygon constructors in all
+        // Spring versions, so we keep exterior rings, which are sufficient for most region containment queries and accepted by Mongo.
+        private static List<Coordinate[]> cleanShells(JsonNode geom) {
             String type = geom.get("type").asText();
 
             try {
+                List<Coordinate[]> shells = new ArrayList<>();
                 if ("MultiPolygon".equalsIgnoreCase(type)) {
-                    List<GeoJsonPolygon> polygons = new ArrayList<>();
                     for (JsonNode polyCoords : geom.get("coordinates")) {
                         // polyCoords is an array of rings (exterior + holes)
-                        Geometry jts = buildAndCleanPolygonFromCoordsArray(polyCoords);
-                        if (jts == null || jts.isEmpty()) continue;
-                        // Convert each polygon (possibly a MultiPolygon -> multiple polygons)
-                        if (jts instanceof Polygon) {
-                            GeoJsonPolygon gp = polygonToGeoJsonPolygon((Polygon) jts);
-                            if (gp != null) polygons.add(gp);
-                        } else if (jts instanceof MultiPolygon) {
-                            for (int i = 0; i < jts.getNumGeometries(); i++) {
-                                Polygon p = (Polygon) jts.getGeometryN(i);
-                                GeoJsonPolygon gp = polygonToGeoJsonPolygon(p);
-                                if (gp != null) polygons.add(gp);
-                            }
-                        }
+                        addShells(buildAndCleanPolygonFromCoordsArray(polyCoords), shells);
                     }
-                    if (polygons.isEmpty()) throw new IllegalArgumentException("No valid polygons found in MultiPolygon");
-                    return new GeoJsonMultiPolygon(polygons);
+                    if (shells.isEmpty()) throw new IllegalArgumentException("No valid polygons found in MultiPolygon");
                 } else if ("Polygon".equalsIgnoreCase(type)) {
                     Geometry jts = buildAndCleanPolygonFromCoordsArray(geom.get("coordinates"));
                     if (jts == null || jts.isEmpty()) throw new IllegalArgumentException("Invalid Polygon geometry");
-                    List<GeoJsonPolygon> polygons = new ArrayList<>();
-                    if (jts instanceof Polygon) {
-                        GeoJsonPolygon gp = polygonToGeoJsonPolygon((Polygon) jts);
-                        if (gp != null) polygons.add(gp);
-                    } else if (jts instanceof MultiPolygon) {
-                        for (int i = 0; i < jts.getNumGeometries(); i++) {
-                            Polygon p = (Polygon) jts.getGeometryN(i);
-                            GeoJsonPolygon gp = polygonToGeoJsonPolygon(p);
-                            if (gp != null) polygons.add(gp);
-                        }
-                    }
-                    return new GeoJsonMultiPolygon(polygons);
+                    addShells(jts, shells);
                 } else {
                     throw new IllegalArgumentException("Unsupported geometry type: " + type);
                 }
+                return shells;
             } catch (Exception ex) {
                 throw new IllegalArgumentException("Failed to convert geometry: " + ex.getMessage(), ex);
             }
         }
 
+        // Each polygon of a cleaned Polygon / MultiPolygon (possibly split by repair); empty and degenerate shells are dropped
+        private static void addShells(Geometry jts, List<Coordinate[]> shells) {
+            if (jts == null || jts.isEmpty()) return;
+            if (jts instanceof Polygon p) {
+                Coordinate[] coords = p.getExteriorRing().getCoordinates();
+                if (coords != null && coords.length >= 4) shells.add(coords);
+            } else if (jts instanceof MultiPolygon) {
+                for (int i = 0; i < jts.getNumGeometries(); i++) addShells(jts.getGeometryN(i), shells);
+            }
+        }
+
         // Build a JTS Geometry (Polygon/MultiPolygon) from the GeoJSON rings array and sanitize it.
         private static Geometry buildAndCleanPolygonFromCoordsArray(JsonNode polyCoords) {
             // polyCoords: [ [ [lon,lat], ... ] (exterior) , [hole1], [hole2], ... ]
@@ -135,20 +152,6 @@ import java.util.List;
             }
         }
 
-        // Convert a Polygon into a GeoJsonPolygon (exterior only). Holes are not supported by GeoJsonPolygon constructors in all Spring versions,
-        // so we keep exterior ring which is sufficient for most region containment queries and accepted by Mongo.
-        private static GeoJsonPolygon polygonToGeoJsonPolygon(Polygon p) {
-            if (p == null || p.isEmpty()) return null;
-            Coordinate[] coords = p.getExteriorRing().getCoordinates();
-            if (coords == null || coords.length < 4) return null;
-
-            List<Point> pts = new ArrayList<>();
-            for (Coordinate c : coords) {
-                pts.add(new Point(c.x, c.y)); // Note: Point expects (x=lon, y=lat)
-            }
-            return new GeoJsonPolygon(pts);
-        }
-
         private static LinearRing coordsNodeToLinearRing(JsonNode ringNode) {
             if (ringNode == null || !ringNode.isArray() || ringNode.size() == 0) return null;
             List<Coordinate> coords = new ArrayList<>();
@@ -201,6 +204,39 @@ import java.util.List;
             return op.isValid();
         }
 
+        /**
+         * Convert a stored GeoJsonMultiPolygon back into a JTS MultiPolygon (exterior ring + holes).
+         * Rings that are too short to form a LinearRing are skipped.
+         */
+        public static MultiPolygon toJts(GeoJsonMultiPolygon multi) {
+            if (multi == null) return GEOM_FACTORY.createMultiPolygon();
+            List<Polygon> polys = new ArrayList<>();
+            for (GeoJsonPolygon gp : multi.getCoordinates()) {
+                List<GeoJsonLineString> rings = gp.getCoordinates();
+                if (rings.isEmpty()) continue;
+                LinearRing shell = pointsToLinearRing(rings.get(0).getCoordinates());
+                if (shell == null) continue;
+                List<LinearRing> holes = new ArrayList<>();
+                for (int i = 1; i < rings.size(); i++) {
+                    LinearRing hole = pointsToLinearRing(rings.get(i).getCoordinates());
+                    if (hole != null) holes.add(hole);
+                }
+                polys.add(GEOM_FACTORY.createPolygon(shell, holes.toArray(new LinearRing[0])));
+            }
+            return GEOM_FACTORY.createMultiPolygon(polys.toArray(new Polygon[0]));
+        }
+
+        private static LinearRing pointsToLinearRing(List<Point> pts) {
+            if (pts == null || pts.size() < 3) return null;
+            List<Coordinate> coords = new ArrayList<>(pts.size() + 1);
+            for (Point p : pts) coords.add(new Coordinate(p.getX(), p.getY()));
+            if (!coords.get(0).equals2D(coords.get(coords.size() - 1))) {
+                coords.add(new Coordinate(coords.get(0)));
+            }
+            if (coords.size() < 4) return null;
+            return GEOM_FACTORY.createLinearRing(coords.toArray(new Coordinate[0]));
+        }
+
         // ---- bbox and centroid functions (unchanged behaviour) ----
 
         public static double[] calcBBox(JsonNode geom) {
@@ -0,0 +1,103 @@
+package com.voicemap.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the "features" array of a GeoJSON FeatureCollection one feature at a time.
+ *
+ * Only the current feature is materialized as a tree, so memory stays bounded by the
+ * largest single feature regardless of file size. Other top-level members (crs, name,
+ * bbox, ...) are skipped wherever they appear before "features".
+ */
+public class GeoJsonFeatureReader implements Iterator<JsonNode>, Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JsonParser parser;
+    private JsonNode next;
+    private boolean done;
+    private long read;
+
+    /** Positions the parser on the features array; throws IllegalArgumentException if there is none. */
+    public GeoJsonFeatureReader(InputStream in) throws IOException {
+        this.parser = MAPPER.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            close();
+            throw new IllegalArgumentException("Invalid GeoJSON FeatureCollection");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("features".equals(field) && value == JsonToken.START_ARRAY) return;
+            parser.skipChildren();
+        }
+        close();
+        throw new IllegalArgumentException("Invalid GeoJSON FeatureCollection");
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) return true;
+        if (done) return false;
+        try {
+            JsonToken t = parser.nextToken();
+            if (t == JsonToken.END_ARRAY || t == null) {
+                done = true;
+                return false;
+            }
+            next = MAPPER.readTree(parser);
+            return true;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("GeoJSON parse error after " + read + " features", ex);
+        }
+    }
+
+    @Override
+    public JsonNode next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        JsonNode f = next;
+        next = null;
+        read++;
+        return f;
+    }
+
+    /** Skip up to n features without building their trees; returns how many were skipped. */
+    public long skip(long n) {
+        long skipped = 0;
+        try {
+            while (skipped < n && next == null && !done) {
+                JsonToken t = parser.nextToken();
+                if (t == JsonToken.END_ARRAY || t == null) {
+                    done = true;
+                    break;
+                }
+                parser.skipChildren();
+                skipped++;
+                read++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("GeoJSON parse error after " + read + " features", ex);
+        }
+        return skipped;
+    }
+
+    /** Number of features handed out or skipped so far. */
+    public long getRead() {
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
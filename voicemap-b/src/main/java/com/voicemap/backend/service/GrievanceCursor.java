@@ -0,0 +1,36 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Grievance;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in the grievance listing: createdAt and id of the last grievance a page
+ * returned. Handed to clients as an opaque URL-safe token and only ever decoded here.
+ */
+public record GrievanceCursor(Instant createdAt, ObjectId id) {
+
+    public static GrievanceCursor of(Grievance g) {
+        return new GrievanceCursor(g.getCreatedAt(), new ObjectId(g.getId()));
+    }
+
+    public String encode() {
+        String raw = createdAt.toEpochMilli() + ":" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Throws IllegalArgumentException for a token that was not produced by {@link #encode}. */
+    public static GrievanceCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new GrievanceCursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))),
+                    new ObjectId(raw.substring(sep + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
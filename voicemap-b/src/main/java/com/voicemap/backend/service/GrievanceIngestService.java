@@ -0,0 +1,180 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Grievance;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous grievance intake.
+ *
+ * {@link #submit} assigns an id and puts the grievance on a bounded queue, or refuses it
+ * when the queue is full so the caller can answer 429. Worker threads take micro-batches
+ * off the queue, resolve regions for the batch in Morton order (neighbouring points hit
+ * the same index nodes), write it with one unordered bulk insert and count the written
+ * ones into the grievance rollups.
+ *
+ * Until written, a grievance is visible through {@link #getPending}; a failed write is
+ * remembered (bounded) with its error and reported by {@link #getFailure}.
+ *
+ * The queue is not durable: grievances accepted but not yet written are lost if the
+ * process dies, which is why the API only uses this with voicemap.grievance.async=true.
+ */
+@Service
+public class GrievanceIngestService {
+
+    public static final String STATUS_QUEUED = "queued";
+    public static final String STATUS_FAILED = "failed";
+
+    private static final int MAX_REMEMBERED_FAILURES = 1000;
+
+    private final GrievanceService grievanceService;
+    private final GrievanceRollupService rollups;
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final BlockingQueue<Grievance> queue;
+    private final Map<String, Grievance> pending = new ConcurrentHashMap<>();
+    private final Map<String, String> failures = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_REMEMBERED_FAILURES;
+                }
+            });
+    private final ExecutorService workers;
+    private volatile boolean stopping;
+
+    public GrievanceIngestService(GrievanceService grievanceService, GrievanceRollupService rollups,
+                                  MongoTemplate mongoTemplate,
+                                  @Value("${voicemap.grievance.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${voicemap.grievance.batch-size:200}") int batchSize,
+                                  @Value("${voicemap.grievance.workers:2}") int workerCount) {
+        this.grievanceService = grievanceService;
+        this.rollups = rollups;
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        int n = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "grievance-ingest");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < n; i++) workers.submit(this::drain);
+    }
+
+    /**
+     * Accept a validated grievance for asynchronous processing. Returns false, without
+     * queuing it, when the queue is full or the service is shutting down.
+     */
+    public boolean submit(Grievance g) {
+        if (stopping) return false;
+        g.setId(new ObjectId().toHexString());
+        g.setCreatedAt(Instant.now());
+        g.setStatus("open");
+        pending.put(g.getId(), g);
+        if (!queue.offer(g)) {
+            pending.remove(g.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /** A grievance accepted but not yet written, if any. */
+    public Grievance getPending(String id) {
+        return pending.get(id);
+    }
+
+    /** Error of a grievance whose write failed, if remembered. */
+    public String getFailure(String id) {
+        return failures.get(id);
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    private void drain() {
+        List<Grievance> batch = new ArrayList<>(batchSize);
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                Grievance first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException ex) {
+                // shutdownNow after the grace period
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                for (Grievance g : batch) fail(g, ex.getMessage());
+                System.out.println("Grievance batch failed: " + ex.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Grievance> batch) {
+        batch.sort(Comparator.comparingLong(GrievanceIngestService::curvePosition));
+        for (Grievance g : batch) grievanceService.assignRegions(g);
+
+        BulkWriter<Grievance> writer = new BulkWriter<>(mongoTemplate, Grievance.class, batch.size());
+        for (Grievance g : batch) writer.add(g, g.getId());
+        rollups.recording(() -> {
+            writer.flush();
+            Set<String> failed = new HashSet<>();
+            for (String failure : writer.getFailures()) {
+                int sep = failure.indexOf(": ");
+                String id = sep < 0 ? failure : failure.substring(0, sep);
+                failed.add(id);
+                failures.put(id, sep < 0 ? "write failed" : failure.substring(sep + 2));
+            }
+            List<Grievance> written = new ArrayList<>(batch.size());
+            for (Grievance g : batch) if (!failed.contains(g.getId())) written.add(g);
+            rollups.recordInserted(written);
+            return written;
+        });
+        for (Grievance g : batch) pending.remove(g.getId());
+    }
+
+    private void fail(Grievance g, String error) {
+        failures.put(g.getId(), error == null ? "ingest failed" : error);
+        pending.remove(g.getId());
+    }
+
+    private static long curvePosition(Grievance g) {
+        if (g.getLocation() == null) return 0;
+        return RegionBatchResolver.morton(g.getLocation().getX(), g.getLocation().getY());
+    }
+
+    /** Stop accepting and give the workers a few seconds to write what is queued. */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            System.out.println("Grievance ingest stopped with " + queue.size() + " queued");
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.voicemap.backend.model.Grievance;
+import com.voicemap.backend.model.GrievanceRollup;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Materialized grievance counts per (level, region id, category, UTC day), so stats
+ * endpoints read a few small documents instead of aggregating the grievances collection.
+ *
+ * Inserts and status changes are applied as $inc upserts on the rollup ids, one unordered
+ * bulk write per call. A rollup write that fails is logged and does not fail the grievance
+ * write; {@link #startRebuild} recomputes everything from the grievances collection.
+ * Callers write grievances and record them inside {@link #recording}, which lets a rebuild
+ * swap in its result without losing or double-counting concurrent writes.
+ */
+@Service
+public class GrievanceRollupService {
+
+    public static final String COLLECTION = "grievance_rollups";
+    public static final List<String> LEVELS = List.of("pc", "district", "state");
+    public static final Pattern STATUS = Pattern.compile("[A-Za-z_]{1,32}");
+
+    public enum RebuildState { IDLE, RUNNING, DONE, FAILED }
+
+    private static final Map<String, Function<Grievance, String>> REGION_OF = Map.of(
+            "pc", Grievance::getRegionPcId,
+            "district", Grievance::getRegionDistrictId,
+            "state", Grievance::getRegionStateId);
+    private static final Map<String, String> REGION_FIELD = Map.of(
+            "pc", "regionPcId", "district", "regionDistrictId", "state", "regionStateId");
+
+    private final MongoTemplate mongoTemplate;
+    // grievance writes hold the read side; a rebuild's final catch-up and swap hold the write side
+    private final ReadWriteLock writes = new ReentrantReadWriteLock(true);
+    // rollups changed while a rebuild runs (null otherwise), recomputed before its swap
+    private volatile Map<String, Delta> touched;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile RebuildState rebuildState = RebuildState.IDLE;
+    private volatile String rebuildError;
+
+    public GrievanceRollupService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // pending change to one rollup document
+    private static final class Delta {
+        final String level, regionId, category, day;
+        long count;
+        final Map<String, Long> byStatus = new HashMap<>();
+
+        Delta(String level, String regionId, String category, String day) {
+            this.level = level;
+            this.regionId = regionId;
+            this.category = category;
+            this.day = day;
+        }
+
+        String id() {
+            return level + "|" + regionId + "|" + (category == null ? "" : category) + "|" + day;
+        }
+
+        void add(String status, long n) {
+            if (status != null && STATUS.matcher(status).matches()) byStatus.merge(status, n, Long::sum);
+        }
+    }
+
+    /**
+     * Run a grievance write together with its record* call. Writes run concurrently with each
+     * other, but never across the moment a rebuild swaps its collection in.
+     */
+    public <T> T recording(Supplier<T> write) {
+        writes.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            writes.readLock().unlock();
+        }
+    }
+
+    /** Count newly written grievances into their rollups. */
+    public void recordInserted(Collection<Grievance> grievances) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (Grievance g : grievances) {
+            for (Delta d : deltasOf(g, deltas)) {
+                d.count++;
+                d.add(g.getStatus(), 1);
+            }
+        }
+        apply(deltas.values());
+    }
+
+    /** Move a grievance's contribution from one status to another. */
+    public void recordStatusChange(Grievance g, String from, String to) {
+        if (from != null && from.equals(to)) return;
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (Delta d : deltasOf(g, deltas)) {
+            d.add(from, -1);
+            d.add(to, 1);
+        }
+        apply(deltas.values());
+    }
+
+    private static List<Delta> deltasOf(Grievance g, Map<String, Delta> deltas) {
+        List<Delta> out = new ArrayList<>(LEVELS.size());
+        if (g.getCreatedAt() == null) return out;
+        String day = LocalDate.ofInstant(g.getCreatedAt(), ZoneOffset.UTC).toString();
+        for (String level : LEVELS) {
+            String regionId = REGION_OF.get(level).apply(g);
+            if (regionId == null) continue;
+            Delta d = new Delta(level, regionId, g.getCategory(), day);
+            out.add(deltas.computeIfAbsent(d.id(), k -> d));
+        }
+        return out;
+    }
+
+    private void apply(Collection<Delta> deltas) {
+        if (deltas.isEmpty()) return;
+        Map<String, Delta> changed = touched;
+        if (changed != null) for (Delta d : deltas) changed.putIfAbsent(d.id(), d);
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GrievanceRollup.class);
+        for (Delta d : deltas) {
+            Update u = new Update()
+                    .setOnInsert("level", d.level)
+                    .setOnInsert("regionId", d.regionId)
+                    .setOnInsert("category", d.category)
+                    .setOnInsert("day", d.day)
+                    .inc("count", d.count);
+            d.byStatus.forEach((status, n) -> u.inc("byStatus." + status, n));
+            ops.upsert(new Query(Criteria.where("_id").is(d.id())), u);
+        }
+        try {
+            ops.execute();
+        } catch (RuntimeException ex) {
+            System.out.println("Grievance rollup update failed (rebuild to repair): " + ex.getMessage());
+        }
+    }
+
+    // --- reads ---
+
+    /**
+     * Grievance count per region id at a level, for a choropleth: optionally only one
+     * category and/or status, and days within [from, to] (yyyy-MM-dd, inclusive).
+     */
+    public Map<String, Long> countsByRegion(String level, String category, String status, String from, String to) {
+        Criteria c = levelAndDays(level, from, to);
+        if (category != null) c = c.and("category").is(category);
+        if (status != null && !STATUS.matcher(status).matches()) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+        String field = status == null ? "count" : "byStatus." + status;
+        Aggregation agg = Aggregation.newAggregation(
+                Aggregation.match(c),
+                Aggregation.group("regionId").sum(field).as("n"));
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (Document d : mongoTemplate.aggregate(agg, COLLECTION, Document.class)) {
+            long n = ((Number) d.get("n")).longValue();
+            if (n != 0) out.put(d.getString("_id"), n);
+        }
+        return out;
+    }
+
+    /** Rollups of one region (per category and day), oldest day first. */
+    public List<GrievanceRollup> forRegion(String level, String regionId, String from, String to) {
+        Query q = new Query(levelAndDays(level, from, to).and("regionId").is(regionId))
+                .with(Sort.by("day", "category"));
+        return mongoTemplate.find(q, GrievanceRollup.class);
+    }
+
+    private static Criteria levelAndDays(String level, String from, String to) {
+        if (!LEVELS.contains(level)) {
+            throw new IllegalArgumentException("Unknown level: " + level + " (allowed: " + LEVELS + ")");
+        }
+        Criteria c = Criteria.where("level").is(level);
+        if (from != null || to != null) {
+            Criteria day = c.and("day");
+            if (from != null) day.gte(day(from));
+            if (to != null) day.lte(day(to));
+        }
+        return c;
+    }
+
+    private static String day(String s) {
+        try {
+            return LocalDate.parse(s).toString();
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid day (expected yyyy-MM-dd): " + s);
+        }
+    }
+
+    // --- indexes and rebuild ---
+
+    /** Indexes behind countsByRegion and forRegion. */
+    public void ensureIndexes(String collection) {
+        IndexOperations ops = mongoTemplate.indexOps(collection);
+        ops.ensureIndex(new Index().on("level", Sort.Direction.ASC).on("day", Sort.Direction.ASC).on("category", Sort.Direction.ASC));
+        ops.ensureIndex(new Index().on("level", Sort.Direction.ASC).on("regionId", Sort.Direction.ASC).on("day", Sort.Direction.ASC));
+    }
+
+    public RebuildState getRebuildState() {
+        return rebuildState;
+    }
+
+    public String getRebuildError() {
+        return rebuildError;
+    }
+
+    /** Start a background rebuild; false if one is already running. */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return false;
+        rebuildState = RebuildState.RUNNING;
+        rebuildError = null;
+        Thread t = new Thread(this::rebuild, "grievance-rollup-rebuild");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    /**
+     * Recompute all rollups from the grievances collection into a scratch collection and
+     * swap it in with a rename, so readers never see a half-built set.
+     *
+     * Writes recorded while the full aggregation runs may or may not be in its result, so
+     * the rollups they touched are tracked and, with grievance writes paused, recomputed
+     * exactly in the scratch collection right before the rename. The pause lasts only for
+     * those rollups, not for the whole rebuild.
+     */
+    void rebuild() {
+        String scratch = COLLECTION + "_rebuild";
+        touched = new ConcurrentHashMap<>();
+        try {
+            Map<String, Delta> deltas = aggregate(null);
+
+            mongoTemplate.dropCollection(scratch);
+            List<GrievanceRollup> batch = new ArrayList<>();
+            for (Delta d : deltas.values()) {
+                batch.add(toRollup(d));
+                if (batch.size() == 1000) {
+                    mongoTemplate.insert(batch, scratch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) mongoTemplate.insert(batch, scratch);
+            ensureIndexes(scratch); // also creates the collection when there is nothing to insert
+
+            int caughtUp;
+            writes.writeLock().lock();
+            try {
+                caughtUp = recompute(touched, scratch);
+                String db = mongoTemplate.getDb().getName();
+                mongoTemplate.getCollection(scratch).renameCollection(new MongoNamespace(db, COLLECTION),
+                        new RenameCollectionOptions().dropTarget(true));
+            } finally {
+                touched = null;
+                writes.writeLock().unlock();
+            }
+            System.out.println("Grievance rollups rebuilt: " + deltas.size() + " documents, "
+                    + caughtUp + " recomputed for writes during the rebuild");
+            rebuildState = RebuildState.DONE;
+        } catch (Exception ex) {
+            rebuildError = ex.getMessage();
+            rebuildState = RebuildState.FAILED;
+            System.out.println("Grievance rollup rebuild failed: " + ex.getMessage());
+        } finally {
+            touched = null;
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Rollups computed from the grievances collection, by rollup id: all of them, or with
+     * {@code only} just those ids (the query is narrowed to their regions).
+     */
+    private Map<String, Delta> aggregate(Map<String, Delta> only) {
+        Map<String, Delta> deltas = new HashMap<>();
+        for (String level : LEVELS) {
+            String regionField = REGION_FIELD.get(level);
+            Criteria match = Criteria.where(regionField).ne(null).and("createdAt").ne(null);
+            if (only != null) {
+                List<String> regionIds = only.values().stream()
+                        .filter(d -> d.level.equals(level)).map(d -> d.regionId).distinct().toList();
+                if (regionIds.isEmpty()) continue;
+                match = Criteria.where(regionField).in(regionIds).and("createdAt").ne(null);
+            }
+            Aggregation agg = Aggregation.newAggregation(
+                    Aggregation.match(match),
+                    Aggregation.project("category", "status")
+                            .and(regionField).as("regionId")
+                            .and(DateOperators.dateOf("createdAt").withTimezone(DateOperators.Timezone.valueOf("UTC"))
+                                    .toString("%Y-%m-%d")).as("day"),
+                    Aggregation.group("regionId", "category", "day", "status").count().as("n"));
+            for (Document row : mongoTemplate.aggregate(agg, "grievances", Document.class)) {
+                Document key = row.get("_id", Document.class);
+                Delta d = new Delta(level, key.getString("regionId"), key.getString("category"), key.getString("day"));
+                if (only != null && !only.containsKey(d.id())) continue;
+                Delta acc = deltas.computeIfAbsent(d.id(), k -> d);
+                long n = ((Number) row.get("n")).longValue();
+                acc.count += n;
+                acc.add(key.getString("status"), n);
+            }
+        }
+        return deltas;
+    }
+
+    // replace the given rollups in collection with their exact current values; returns how many
+    private int recompute(Map<String, Delta> ids, String collection) {
+        if (ids.isEmpty()) return 0;
+        Map<String, Delta> exact = aggregate(ids);
+        for (String id : ids.keySet()) {
+            Delta d = exact.get(id);
+            if (d != null) mongoTemplate.save(toRollup(d), collection);
+            else mongoTemplate.remove(new Query(Criteria.where("_id").is(id)), collection);
+        }
+        return ids.size();
+    }
+
+    private static GrievanceRollup toRollup(Delta d) {
+        GrievanceRollup r = new GrievanceRollup();
+        r.setId(d.id());
+        r.setLevel(d.level);
+        r.setRegionId(d.regionId);
+        r.setCategory(d.category);
+        r.setDay(d.day);
+        r.setCount(d.count);
+        r.setByStatus(d.byStatus);
+        return r;
+    }
+}
@@ -1,13 +1,22 @@
 package com.voicemap.backend.service;
 
+import com.voicemap.backend.dto.RegionChain;
 import com.voicemap.backend.model.Grievance;
-import com.voicemap.backend.model.Region;
 import com.voicemap.backend.repository.GrievanceRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,39 +25,135 @@ public class GrievanceService {
 
     private final GrievanceRepository grievanceRepository;
     private final RegionService regionService;
+    private final MongoTemplate mongoTemplate;
+    private final GrievanceRollupService rollups;
 
-    public GrievanceService(GrievanceRepository grievanceRepository, RegionService regionService) {
+    // viewports up to this many degrees wide are pre-filtered through the 2dsphere index
+    static final double INDEXED_VIEWPORT_MAX_SPAN = 90;
+    // longest polygon edge along a parallel, and how far the polygon reaches past the box
+    private static final double VIEWPORT_EDGE_STEP = 1.0;
+    private static final double VIEWPORT_MARGIN = 0.01;
+
+    public GrievanceService(GrievanceRepository grievanceRepository, RegionService regionService,
+                            MongoTemplate mongoTemplate, GrievanceRollupService rollups) {
         this.grievanceRepository = grievanceRepository;
         this.regionService = regionService;
+        this.mongoTemplate = mongoTemplate;
+        this.rollups = rollups;
     }
 
     public Grievance createGrievance(Grievance grievance) {
         grievance.setCreatedAt(Instant.now());
         grievance.setStatus("open");
 
-        // auto-assign regions using location if available
+        assignRegions(grievance);
+        return rollups.recording(() -> {
+            Grievance saved = grievanceRepository.save(grievance);
+            rollups.recordInserted(List.of(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Set a grievance's status and move it between status counts in the rollups.
+     * Returns the updated grievance, or empty if there is none with this id.
+     */
+    public Optional<Grievance> updateStatus(String id, String status) {
+        if (status == null || !GrievanceRollupService.STATUS.matcher(status).matches()) {
+            throw new IllegalArgumentException("Invalid status: " + status);
+        }
+        Grievance before = rollups.recording(() -> {
+            Grievance g = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(id)),
+                    Update.update("status", status), Grievance.class);
+            if (g != null) rollups.recordStatusChange(g, g.getStatus(), status);
+            return g;
+        });
+        if (before == null) return Optional.empty();
+        before.setStatus(status);
+        return Optional.of(before);
+    }
+
+    /** Auto-assign region ids from the grievance location, if it has one. */
+    public void assignRegions(Grievance grievance) {
         if (grievance.getLocation() != null) {
             Double lon = grievance.getLocation().getX();
             Double lat = grievance.getLocation().getY();
             if (lon != null && lat != null) {
-                // try ward -> ac -> pc -> district -> state
+                // resolve ward -> ac -> pc -> district -> state in one pass
                 assignRegionsForPoint(grievance, lat, lon);
             }
         }
-
-        return grievanceRepository.save(grievance);
     }
 
-    public Page<Grievance> find(String district, String category, Pageable pageable) {
-        if (district != null && category != null) {
-            return grievanceRepository.findByCategoryAndDistrict(category, district, pageable);
-        } else if (district != null) {
-            return grievanceRepository.findByDistrict(district, pageable);
-        } else if (category != null) {
-            return grievanceRepository.findByCategory(category, pageable);
-        } else {
-            return grievanceRepository.findAll(pageable);
+    /**
+     * One page of grievances in (createdAt, id) order, newest first unless {@code ascending},
+     * optionally filtered by district, category and viewport [minLon, minLat, maxLon, maxLat]
+     * (see {@link #viewport}).
+     *
+     * A page continues from {@code after} (null for the first) with a range condition on the
+     * sort keys rather than a skip, and no total is counted: one size+1 limited query per page,
+     * however deep the client scrolls.
+     */
+    public Slice<Grievance> find(String district, String category, double[] bbox,
+                                 GrievanceCursor after, int size, boolean ascending) {
+        List<Criteria> and = new ArrayList<>();
+        if (district != null) and.add(Criteria.where("district").is(district));
+        if (category != null) and.add(Criteria.where("category").is(category));
+        if (bbox != null) and.addAll(viewport(bbox));
+        if (after != null) {
+            and.add(ascending
+                    ? new Criteria().orOperator(
+                            Criteria.where("createdAt").gt(after.createdAt()),
+                            Criteria.where("createdAt").is(after.createdAt()).and("_id").gt(after.id()))
+                    : new Criteria().orOperator(
+                            Criteria.where("createdAt").lt(after.createdAt()),
+                            Criteria.where("createdAt").is(after.createdAt()).and("_id").lt(after.id())));
         }
+
+        Sort.Direction dir = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(dir, "createdAt", "_id");
+        Query q = and.isEmpty() ? new Query() : new Query(new Criteria().andOperator(and));
+        q.with(sort).limit(size + 1);
+
+        List<Grievance> rows = mongoTemplate.find(q, Grievance.class);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) rows = rows.subList(0, size);
+        return new SliceImpl<>(rows, PageRequest.of(0, size, sort), hasNext);
+    }
+
+    /**
+     * Conditions selecting locations inside a lon/lat rectangle, edges included.
+     *
+     * The exact test is a range on the stored coordinates. Polygon edges on a 2dsphere
+     * index are geodesics, which bow away from the box's parallels, so the rectangle is
+     * not used as-is: for viewports up to INDEXED_VIEWPORT_MAX_SPAN degrees (outside the
+     * polar caps) a $geoWithin on a slightly larger polygon, densified along its parallels,
+     * lets the index narrow candidates. Larger viewports, which select most documents
+     * anyway and could exceed a hemisphere, use the range test alone.
+     */
+    static List<Criteria> viewport(double[] bbox) {
+        List<Criteria> out = new ArrayList<>(3);
+        out.add(Criteria.where("location.coordinates.0").gte(bbox[0]).lte(bbox[2]));
+        out.add(Criteria.where("location.coordinates.1").gte(bbox[1]).lte(bbox[3]));
+        boolean indexed = bbox[2] - bbox[0] <= INDEXED_VIEWPORT_MAX_SPAN
+                && bbox[3] - bbox[1] <= INDEXED_VIEWPORT_MAX_SPAN
+                && bbox[1] > -85 && bbox[3] < 85;
+        if (indexed) out.add(0, Criteria.where("location").within(enclosingPolygon(bbox)));
+        return out;
+    }
+
+    // counter-clockwise ring around the box; no parallel edge is longer than VIEWPORT_EDGE_STEP
+    static GeoJsonPolygon enclosingPolygon(double[] bbox) {
+        double minLon = Math.max(-180, bbox[0] - VIEWPORT_MARGIN);
+        double maxLon = Math.min(180, bbox[2] + VIEWPORT_MARGIN);
+        double minLat = bbox[1] - VIEWPORT_MARGIN;
+        double maxLat = bbox[3] + VIEWPORT_MARGIN;
+        int steps = Math.max(1, (int) Math.ceil((maxLon - minLon) / VIEWPORT_EDGE_STEP));
+        List<Point> ring = new ArrayList<>(2 * steps + 3);
+        for (int i = 0; i <= steps; i++) ring.add(new Point(minLon + (maxLon - minLon) * i / steps, minLat));
+        for (int i = steps; i >= 0; i--) ring.add(new Point(minLon + (maxLon - minLon) * i / steps, maxLat));
+        ring.add(ring.get(0));
+        return new GeoJsonPolygon(ring);
     }
 
     public Optional<Grievance> getGrievanceById(String id) {
@@ -56,41 +161,10 @@ public class GrievanceService {
     }
 
     private void assignRegionsForPoint(Grievance g, double lat, double lon) {
-        // Prefer smallest region types in this order
-        String[] order = new String[] {"ward", "ac", "pc", "district", "state"};
-        for (String t : order) {
-            List<Region> matches = regionService.findContaining(lat, lon, t);
-            if (matches != null && !matches.isEmpty()) {
-                Region match = matches.get(0);
-                // Set according to available info
-                if ("pc".equalsIgnoreCase(t)) {
-                    g.setRegionPcId(match.getId());
-                } else if ("ac".equalsIgnoreCase(t)) {
-                    g.setRegionAcId(match.getId());
-                } else if ("district".equalsIgnoreCase(t)) {
-                    g.setRegionDistrictId(match.getId());
-                } else if ("state".equalsIgnoreCase(t)) {
-                    g.setRegionStateId(match.getId());
-                } else if ("ward".equalsIgnoreCase(t)) {
-                    // if ward, climb ancestors to set pc/district/state if parentIds set
-                    g.setRegionPcId(findAncestorId(match, "pc"));
-                    g.setRegionAcId(findAncestorId(match, "ac"));
-                    g.setRegionDistrictId(findAncestorId(match, "district"));
-                    g.setRegionStateId(findAncestorId(match, "state"));
-                }
-                // we stop after first match (smallest available)
-                break;
-            }
-        }
-    }
-
-    private String findAncestorId(Region start, String desiredType) {
-        Region current = start;
-        while (current != null) {
-            if (desiredType.equalsIgnoreCase(current.getType())) return current.getId();
-            if (current.getParentId() == null) break;
-            current = regionService.findById(current.getParentId()).orElse(null);
-        }
-        return null;
+        RegionChain chain = regionService.resolveChain(lat, lon);
+        g.setRegionPcId(chain.getPcId());
+        g.setRegionAcId(chain.getAcId());
+        g.setRegionDistrictId(chain.getDistrictId());
+        g.setRegionStateId(chain.getStateId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,394 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.ImportJob;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs region and pincode imports as background jobs.
+ *
+ * The upload is spooled to disk and the job returned immediately; a dedicated executor
+ * runs the importer, which reports progress through a JobProgress. Each bulk flush saves
+ * the job document as a checkpoint, so after a crash or restart an unfinished job is
+ * picked up again and skips the features it had already committed.
+ *
+ * Jobs carry the id of the instance running them and a heartbeat it refreshes. Another
+ * instance only takes over a job whose heartbeat is older than the stale timeout, claiming
+ * it atomically; a restarted instance with the same id (e.g. the same pod) resumes its own
+ * jobs at once. The spool is local to the owner, so a job taken over elsewhere fails
+ * unless the spool dir is shared.
+ *
+ * Every write a run makes to its job (start, checkpoint, heartbeat, finish) only applies
+ * while the job is still owned by this instance. If one matches nothing, another instance
+ * has taken the job over (e.g. after a long pause here), and this run is cancelled
+ * without touching the job again.
+ */
+@Service
+public class ImportJobService {
+
+    public static final String KIND_REGION = "region";
+    public static final String KIND_PINCODE = "pincode";
+
+    // failures kept on the job document; the rest are only counted
+    private static final int MAX_STORED_FAILURES = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final RegionService regionService;
+    private final PincodeService pincodeService;
+    private final Path spoolDir;
+    private final ExecutorService executor;
+    // geometry workers of every running region import; never the common pool, which serves requests
+    private final ForkJoinPool geometryPool;
+    private final ScheduledExecutorService heartbeat;
+    private final Map<String, JobProgress> running = new ConcurrentHashMap<>();
+    private final String instanceId;
+    private final long heartbeatSeconds;
+    private final Duration staleAfter;
+
+    public ImportJobService(MongoTemplate mongoTemplate,
+                            RegionService regionService,
+                            PincodeService pincodeService,
+                            @Value("${voicemap.import.spool-dir:${java.io.tmpdir}/voicemap-imports}") String spoolDir,
+                            @Value("${voicemap.import.threads:2}") int threads,
+                            @Value("${voicemap.instance-id:${HOSTNAME:}}") String instanceId,
+                            @Value("${voicemap.import.heartbeat-seconds:15}") long heartbeatSeconds,
+                            @Value("${voicemap.import.stale-after-seconds:120}") long staleAfterSeconds,
+                            @Value("${voicemap.import.geometry-threads:0}") int geometryThreads) {
+        this.mongoTemplate = mongoTemplate;
+        this.regionService = regionService;
+        this.pincodeService = pincodeService;
+        this.spoolDir = Paths.get(spoolDir);
+        this.instanceId = instanceId == null || instanceId.isBlank() ? localHostName() : instanceId;
+        this.heartbeatSeconds = Math.max(1, heartbeatSeconds);
+        this.staleAfter = Duration.ofSeconds(Math.max(this.heartbeatSeconds * 2, staleAfterSeconds));
+        AtomicInteger n = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "import-job-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        int parallelism = geometryThreads > 0 ? geometryThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.geometryPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("import-geometry-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "import-job-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException ex) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    /**
+     * Spool the input, record a queued job and start it. Region jobs take source, type and
+     * whether the input replaces its source's regions of the types it contains.
+     */
+    public ImportJob submit(String kind, InputStream in, String source, String regionType, boolean replace)
+            throws IOException {
+        if (!KIND_REGION.equals(kind) && !KIND_PINCODE.equals(kind)) {
+            throw new IllegalArgumentException("Unknown import kind: " + kind);
+        }
+        String id = UUID.randomUUID().toString();
+        Files.createDirectories(spoolDir);
+        Path file = spoolDir.resolve(id + ".geojson");
+        Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+
+        ImportJob job = new ImportJob();
+        job.setId(id);
+        job.setKind(kind);
+        job.setSource(source);
+        job.setRegionType(regionType);
+        job.setReplace(replace);
+        job.setFile(file.toString());
+        job.setCreatedAt(Instant.now());
+        job.setOwner(instanceId);
+        job.setHeartbeatAt(Instant.now());
+        // registered before it is stored, so a heartbeat never sees it as ours but idle
+        JobProgress progress = new JobProgress(job);
+        running.put(id, progress);
+        try {
+            mongoTemplate.save(job);
+        } catch (RuntimeException ex) {
+            running.remove(id);
+            throw ex;
+        }
+        executor.submit(() -> run(job, progress));
+        return job;
+    }
+
+    /** Job state, with live counters if it is running in this process. */
+    public Optional<ImportJob> get(String id) {
+        ImportJob job = mongoTemplate.findById(id, ImportJob.class);
+        if (job == null) return Optional.empty();
+        JobProgress progress = running.get(id);
+        if (progress != null) progress.copyCountersTo(job);
+        return Optional.of(job);
+    }
+
+    /**
+     * Request cancellation; the job stops after writing what is already in flight.
+     * A job running on another live instance cannot be cancelled from here.
+     */
+    public boolean cancel(String id) {
+        JobProgress progress = running.get(id);
+        if (progress != null) {
+            progress.cancel();
+            return true;
+        }
+        ImportJob job = mongoTemplate.findById(id, ImportJob.class);
+        if (job == null || !job.isActive() || isLive(job)) return false;
+        // interrupted job nobody is running, unless someone claims it meanwhile
+        Query unclaimed = new Query(Criteria.where("_id").is(id)
+                .and("status").in(ImportJob.QUEUED, ImportJob.RUNNING)
+                .and("owner").is(job.getOwner())
+                .and("heartbeatAt").is(job.getHeartbeatAt()));
+        job.setStatus(ImportJob.CANCELLED);
+        job.setFinishedAt(Instant.now());
+        if (mongoTemplate.replace(unclaimed, job).getMatchedCount() == 0) return false;
+        deleteSpool(job);
+        return true;
+    }
+
+    /** Start heartbeating; each beat also resumes jobs that were ours or whose owner went quiet. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        heartbeat.scheduleWithFixedDelay(this::beat, 0, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    private void beat() {
+        try {
+            for (JobProgress progress : running.values()) {
+                synchronized (progress.job) {
+                    if (progress.lost) continue;
+                    long matched = mongoTemplate.updateFirst(owned(progress.job.getId()),
+                            new Update().set("heartbeatAt", Instant.now()), ImportJob.class).getMatchedCount();
+                    if (matched == 0) progress.lose();
+                }
+            }
+            takeOverInterrupted();
+        } catch (Exception ex) {
+            System.out.println("Import heartbeat failed: " + ex.getMessage());
+        }
+    }
+
+    private boolean isLive(ImportJob job) {
+        return !instanceId.equals(job.getOwner()) && job.getHeartbeatAt() != null
+                && job.getHeartbeatAt().isAfter(Instant.now().minus(staleAfter));
+    }
+
+    /** Claim and restart active jobs owned by this instance id or with a stale heartbeat. */
+    private void takeOverInterrupted() {
+        Query q = new Query(new Criteria().andOperator(
+                Criteria.where("status").in(ImportJob.QUEUED, ImportJob.RUNNING),
+                new Criteria().orOperator(
+                        Criteria.where("owner").is(instanceId),
+                        Criteria.where("heartbeatAt").lt(Instant.now().minus(staleAfter)),
+                        Criteria.where("heartbeatAt").is(null))));
+        for (ImportJob job : mongoTemplate.find(q, ImportJob.class)) {
+            if (running.containsKey(job.getId())) continue;
+            // only one instance wins: the claim matches the owner and heartbeat we just read
+            ImportJob claimed = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(job.getId())
+                            .and("status").in(ImportJob.QUEUED, ImportJob.RUNNING)
+                            .and("owner").is(job.getOwner())
+                            .and("heartbeatAt").is(job.getHeartbeatAt())),
+                    new Update().set("owner", instanceId).set("heartbeatAt", Instant.now()),
+                    FindAndModifyOptions.options().returnNew(true), ImportJob.class);
+            if (claimed == null) continue;
+            if (claimed.getFile() == null || !Files.exists(Paths.get(claimed.getFile()))) {
+                finish(claimed, ImportJob.FAILED, "Spooled input missing; cannot resume");
+                continue;
+            }
+            System.out.println("Resuming import " + claimed.getId() + " at feature " + claimed.getCommittedFeatures()
+                    + (instanceId.equals(job.getOwner()) ? "" : " (taken over from " + job.getOwner() + ")"));
+            start(claimed);
+        }
+    }
+
+    private Query owned(String jobId) {
+        return new Query(Criteria.where("_id").is(jobId).and("owner").is(instanceId));
+    }
+
+    /** Write the whole job document if this instance still owns it. */
+    private boolean saveOwned(ImportJob job) {
+        return mongoTemplate.replace(owned(job.getId()), job).getMatchedCount() > 0;
+    }
+
+    private void start(ImportJob job) {
+        JobProgress progress = new JobProgress(job);
+        running.put(job.getId(), progress);
+        executor.submit(() -> run(job, progress));
+    }
+
+    private void run(ImportJob job, JobProgress progress) {
+        try {
+            job.setStatus(ImportJob.RUNNING);
+            job.setOwner(instanceId);
+            job.setHeartbeatAt(Instant.now());
+            if (job.getStartedAt() == null) job.setStartedAt(Instant.now());
+            if (!saveOwned(job)) {
+                progress.lose();
+                return;
+            }
+
+            List<String> failures;
+            try (InputStream in = Files.newInputStream(Paths.get(job.getFile()))) {
+                if (KIND_REGION.equals(job.getKind())) {
+                    RegionImporter importer = new RegionImporter(regionService, geometryPool,
+                            geometryPool.getParallelism() * 4);
+                    importer.importFromGeoJson(in, job.getSource(), job.getRegionType(), job.isReplace(), progress);
+                    failures = importer.getFailures();
+                } else {
+                    PincodeImporter importer = new PincodeImporter(pincodeService);
+                    importer.importFromGeoJson(in, progress);
+                    failures = importer.getFailures();
+                }
+            }
+            progress.copyCountersTo(job);
+            for (String f : failures) {
+                if (job.getFailures().size() >= MAX_STORED_FAILURES) break;
+                job.getFailures().add(f);
+            }
+            if (progress.lost) return;
+            finish(job, progress.isCancelled() ? ImportJob.CANCELLED : ImportJob.COMPLETED, null);
+        } catch (Exception ex) {
+            if (progress.lost) return;
+            // a later run resumes from the checkpoint, so keep the counters as of it
+            progress.copyCommittedCountersTo(job);
+            if (executor.isShutdown()) {
+                // shutting down: leave the job active so the next start resumes it
+                saveOwned(job);
+                return;
+            }
+            System.out.println("Import " + job.getId() + " failed: " + ex.getMessage());
+            finish(job, ImportJob.FAILED, ex.getMessage());
+        } finally {
+            running.remove(job.getId());
+        }
+    }
+
+    private void finish(ImportJob job, String status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setFinishedAt(Instant.now());
+        if (!saveOwned(job)) {
+            System.out.println("Import " + job.getId() + " was taken over by another instance; not finishing it here");
+            return;
+        }
+        deleteSpool(job);
+        System.out.println("Import " + job.getId() + " " + status + ": " + job.getFeaturesWritten() + " written");
+    }
+
+    private static void deleteSpool(ImportJob job) {
+        if (job.getFile() == null) return;
+        try {
+            Files.deleteIfExists(Paths.get(job.getFile()));
+        } catch (IOException ignored) {
+            // best effort
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        executor.shutdownNow();
+        geometryPool.shutdownNow();
+    }
+
+    /** Progress of one run, added to the totals the job had at its last checkpoint. */
+    private class JobProgress extends ImportProgress {
+        private final ImportJob job;
+        // another instance owns the job now; this run must stop and leave it alone
+        private volatile boolean lost;
+        private final long baseRead;
+        private final long baseWritten;
+        private final long baseSkipped;
+        private final long baseUnchanged;
+
+        JobProgress(ImportJob job) {
+            super(job.getCommittedFeatures());
+            this.job = job;
+            this.baseRead = job.getFeaturesRead();
+            this.baseWritten = job.getFeaturesWritten();
+            this.baseSkipped = job.getFeaturesSkipped();
+            this.baseUnchanged = job.getFeaturesUnchanged();
+        }
+
+        @Override
+        public void checkpoint(long featuresCommitted, long totalWritten) {
+            super.checkpoint(featuresCommitted, totalWritten);
+            synchronized (job) {
+                if (lost) return;
+                copyCommittedCountersTo(job);
+                job.setHeartbeatAt(Instant.now());
+                if (!saveOwned(job)) lose();
+            }
+        }
+
+        void lose() {
+            if (!lost) System.out.println("Import " + job.getId() + " is owned by another instance now; stopping");
+            lost = true;
+            cancel();
+        }
+
+        /** Totals as of the last checkpoint, which is where a resumed run picks up. */
+        void copyCommittedCountersTo(ImportJob target) {
+            target.setFeaturesRead(baseRead + getCommittedRead());
+            target.setFeaturesWritten(baseWritten + getWritten());
+            target.setFeaturesSkipped(baseSkipped + getCommittedSkipped());
+            target.setFeaturesUnchanged(baseUnchanged + getCommittedUnchanged());
+            target.setRemoved(getRemoved());
+            target.setCommittedFeatures(getCommitted());
+        }
+
+        /** Live totals, including features read past the last checkpoint. */
+        void copyCountersTo(ImportJob target) {
+            target.setFeaturesRead(baseRead + getRead());
+            target.setFeaturesWritten(baseWritten + getWritten());
+            target.setFeaturesSkipped(baseSkipped + getSkipped());
+            target.setFeaturesUnchanged(baseUnchanged + getUnchanged());
+            target.setRemoved(getRemoved());
+            target.setCommittedFeatures(getCommitted());
+        }
+    }
+}
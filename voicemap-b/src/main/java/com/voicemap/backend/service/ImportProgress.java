@@ -0,0 +1,118 @@
+package com.voicemap.backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters and control for one import run, shared between the importer threads
+ * and whoever is watching the job.
+ *
+ * A checkpoint is the number of input features whose results are durably written;
+ * a resumed run skips that many features. Subclasses persist checkpoints, with the
+ * counters as of the checkpoint: the parser reads ahead of it, and a resumed run
+ * reads and counts those features again.
+ */
+public class ImportProgress {
+
+    private final long resumeFrom;
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private volatile long committed;
+    private volatile long committedRead;
+    private volatile long committedSkipped;
+    private volatile long committedUnchanged;
+    private volatile boolean cancelled;
+
+    public ImportProgress() {
+        this(0);
+    }
+
+    public ImportProgress(long resumeFrom) {
+        this.resumeFrom = resumeFrom;
+        this.committed = resumeFrom;
+    }
+
+    /** Input features already committed by an earlier run. */
+    public long getResumeFrom() {
+        return resumeFrom;
+    }
+
+    public void featureRead() {
+        read.incrementAndGet();
+    }
+
+    public void featureSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    /** Feature identical to what is stored; nothing written. */
+    public void featureUnchanged() {
+        unchanged.incrementAndGet();
+    }
+
+    /** Stored documents deleted because the new input no longer has them. */
+    public void removed(long count) {
+        removed.addAndGet(count);
+    }
+
+    /**
+     * Called after each bulk flush: every feature before {@code featuresCommitted} is
+     * done, and {@code totalWritten} documents have been written by this run. Called from
+     * the thread that counts skipped and unchanged features, in input order, so those
+     * counts cover exactly the committed features at this point.
+     */
+    public void checkpoint(long featuresCommitted, long totalWritten) {
+        written.set(totalWritten);
+        committedRead = featuresCommitted - resumeFrom;
+        committedSkipped = skipped.get();
+        committedUnchanged = unchanged.get();
+        committed = featuresCommitted;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getRead() {
+        return read.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getUnchanged() {
+        return unchanged.get();
+    }
+
+    public long getRemoved() {
+        return removed.get();
+    }
+
+    public long getCommitted() {
+        return committed;
+    }
+
+    /** Features read by this run up to the last checkpoint. */
+    public long getCommittedRead() {
+        return committedRead;
+    }
+
+    public long getCommittedSkipped() {
+        return committedSkipped;
+    }
+
+    public long getCommittedUnchanged() {
+        return committedUnchanged;
+    }
+}
@@ -0,0 +1,193 @@
+package com.voicemap.backend.service;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile (v2) encoder for a single polygon layer.
+ *
+ * Geometries are expected in lon/lat and already clipped to the tile (plus buffer);
+ * they are projected to Web Mercator tile space here, quantized to the layer extent,
+ * and written with the spec's command/zigzag encoding. Properties are string-valued.
+ * Only the protobuf fields the spec requires for polygons are emitted (see ProtoWriter).
+ */
+public class MvtEncoder {
+
+    public static final int EXTENT = 4096;
+
+    private static final int CMD_MOVE_TO = 1;
+    private static final int CMD_LINE_TO = 2;
+    private static final int CMD_CLOSE_PATH = 7;
+    private static final int GEOM_POLYGON = 3;
+
+    private final String layerName;
+    private final int z;
+    private final int x;
+    private final int y;
+
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> keyIndex = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> valueIndex = new HashMap<>();
+    private final List<byte[]> features = new ArrayList<>();
+    // last encoded point, for delta encoding
+    private final int[] cursor = new int[2];
+
+    public MvtEncoder(String layerName, int z, int x, int y) {
+        this.layerName = layerName;
+        this.z = z;
+        this.x = x;
+        this.y = y;
+    }
+
+    public boolean isEmpty() {
+        return features.isEmpty();
+    }
+
+    /** Add one polygonal feature. Features that collapse to nothing at this zoom are dropped. */
+    public void addFeature(Geometry lonLat, Map<String, String> properties) {
+        List<Integer> geometry = new ArrayList<>();
+        // geometry commands are relative to the previous point within a feature only
+        cursor[0] = 0;
+        cursor[1] = 0;
+        encodePolygons(lonLat, geometry);
+        if (geometry.isEmpty()) return;
+
+        List<Integer> tags = new ArrayList<>();
+        for (Map.Entry<String, String> p : properties.entrySet()) {
+            if (p.getValue() == null) continue;
+            tags.add(keyIndex.computeIfAbsent(p.getKey(), k -> { keys.add(k); return keys.size() - 1; }));
+            tags.add(valueIndex.computeIfAbsent(p.getValue(), v -> { values.add(v); return values.size() - 1; }));
+        }
+
+        ProtoWriter f = new ProtoWriter();
+        f.packed(2, tags);
+        f.uint32(3, GEOM_POLYGON);
+        f.packed(4, geometry);
+        features.add(f.toByteArray());
+    }
+
+    /** Serialize the tile (one layer). */
+    public byte[] encode() {
+        ProtoWriter layer = new ProtoWriter();
+        layer.uint32(15, 2);
+        layer.string(1, layerName);
+        for (byte[] f : features) layer.bytes(2, f);
+        for (String k : keys) layer.string(3, k);
+        for (String v : values) {
+            ProtoWriter value = new ProtoWriter();
+            value.string(1, v);
+            layer.bytes(4, value.toByteArray());
+        }
+        layer.uint32(5, EXTENT);
+
+        ProtoWriter tile = new ProtoWriter();
+        tile.bytes(3, layer.toByteArray());
+        return tile.toByteArray();
+    }
+
+    // ---- geometry ----
+
+    private void encodePolygons(Geometry g, List<Integer> out) {
+        if (g instanceof Polygon poly) {
+            encodePolygon(poly, out);
+        } else {
+            for (int i = 0; i < g.getNumGeometries(); i++) {
+                Geometry part = g.getGeometryN(i);
+                if (part != g) encodePolygons(part, out);
+            }
+        }
+    }
+
+    private void encodePolygon(Polygon poly, List<Integer> out) {
+        if (poly.isEmpty()) return;
+        int[] shell = project(poly.getExteriorRing());
+        if (shell == null) return;
+        // exterior rings must have positive area in tile space (clockwise with y down)
+        writeRing(orient(shell, true), out);
+        for (int i = 0; i < poly.getNumInteriorRing(); i++) {
+            int[] hole = project(poly.getInteriorRingN(i));
+            if (hole != null) writeRing(orient(hole, false), out);
+        }
+    }
+
+    /** Project a ring to tile space; returns interleaved x/y without the closing point, or null if degenerate. */
+    private int[] project(LineString ring) {
+        CoordinateSequence seq = ring.getCoordinateSequence();
+        int n = seq.size();
+        int[] pts = new int[n * 2];
+        int count = 0;
+        double scale = 1 << z;
+        for (int i = 0; i < n; i++) {
+            double lon = seq.getX(i);
+            double lat = Math.max(-85.05112878, Math.min(85.05112878, seq.getY(i)));
+            double mx = (lon + 180.0) / 360.0 * scale - x;
+            double latRad = Math.toRadians(lat);
+            double my = (1.0 - Math.log(Math.tan(latRad) + 1.0 / Math.cos(latRad)) / Math.PI) / 2.0 * scale - y;
+            int px = (int) Math.round(mx * EXTENT);
+            int py = (int) Math.round(my * EXTENT);
+            if (count > 0 && pts[count * 2 - 2] == px && pts[count * 2 - 1] == py) continue;
+            pts[count * 2] = px;
+            pts[count * 2 + 1] = py;
+            count++;
+        }
+        // drop the closing point if it survived quantization
+        if (count > 1 && pts[0] == pts[count * 2 - 2] && pts[1] == pts[count * 2 - 1]) count--;
+        if (count < 3) return null;
+        int[] trimmed = new int[count * 2];
+        System.arraycopy(pts, 0, trimmed, 0, count * 2);
+        return signedArea(trimmed) == 0 ? null : trimmed;
+    }
+
+    private static long signedArea(int[] pts) {
+        long sum = 0;
+        int n = pts.length / 2;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            sum += (long) pts[i * 2] * pts[j * 2 + 1] - (long) pts[j * 2] * pts[i * 2 + 1];
+        }
+        return sum;
+    }
+
+    private static int[] orient(int[] pts, boolean positive) {
+        if ((signedArea(pts) > 0) == positive) return pts;
+        int n = pts.length / 2;
+        int[] rev = new int[pts.length];
+        for (int i = 0; i < n; i++) {
+            rev[i * 2] = pts[(n - 1 - i) * 2];
+            rev[i * 2 + 1] = pts[(n - 1 - i) * 2 + 1];
+        }
+        return rev;
+    }
+
+    private void writeRing(int[] pts, List<Integer> out) {
+        int n = pts.length / 2;
+        out.add(command(CMD_MOVE_TO, 1));
+        delta(pts[0], pts[1], out);
+        out.add(command(CMD_LINE_TO, n - 1));
+        for (int i = 1; i < n; i++) delta(pts[i * 2], pts[i * 2 + 1], out);
+        out.add(command(CMD_CLOSE_PATH, 1));
+    }
+
+    private void delta(int px, int py, List<Integer> out) {
+        out.add(zigzag(px - cursor[0]));
+        out.add(zigzag(py - cursor[1]));
+        cursor[0] = px;
+        cursor[1] = py;
+    }
+
+    private static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+}
@@ -0,0 +1,235 @@
+package com.voicemap.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonLineString;
+import org.springframework.data.mongodb.core.geo.GeoJsonMultiPolygon;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A MultiPolygon stored as one block of interleaved x/y doubles plus two offset arrays,
+ * instead of a Point object per vertex.
+ *
+ * ringStart[k] is the index of the first point of ring k (ringStart[rings] is one past
+ * the last point) and polygonStart[p] is the index of the shell ring of polygon p
+ * (polygonStart[polygons] is one past the last ring); the rings of a polygon are its
+ * shell followed by its holes. Point indices are absolute positions in {@code coords},
+ * so many polygons can share one buffer, as the mapped snapshot does.
+ *
+ * Immutable. JTS views ({@link #ring}, {@link #toJts}) and {@link #writeGeoJson} read the
+ * coordinates in place.
+ */
+public final class PackedMultiPolygon {
+
+    private static final GeometryFactory GEOM_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final DoubleBuffer coords;
+    private final int[] ringStart;
+    private final int[] polygonStart;
+
+    public PackedMultiPolygon(DoubleBuffer coords, int[] ringStart, int[] polygonStart) {
+        this.coords = coords;
+        this.ringStart = ringStart;
+        this.polygonStart = polygonStart;
+    }
+
+    /**
+     * Pack a stored MultiPolygon. Like GeoJsonConverter.toJts, open rings are closed and
+     * rings with fewer than four points are dropped (a polygon without a shell is skipped).
+     */
+    public static PackedMultiPolygon of(GeoJsonMultiPolygon multi) {
+        Builder b = new Builder();
+        if (multi == null) return b.build();
+        for (GeoJsonPolygon poly : multi.getCoordinates()) {
+            b.startPolygon();
+            for (GeoJsonLineString ring : poly.getCoordinates()) {
+                b.startRing();
+                for (Point pt : ring.getCoordinates()) b.addPoint(pt.getX(), pt.getY());
+                b.endRing();
+            }
+            b.endPolygon();
+        }
+        return b.build();
+    }
+
+    /**
+     * Accumulates polygons ring by ring into growable primitive arrays, applying the
+     * same ring rules as {@link #of}. Used by RegionCodec to decode BSON directly.
+     */
+    public static final class Builder {
+        private double[] xy = new double[256];
+        private int[] rings = new int[8];
+        private int[] polys = new int[4];
+        private int points, ringCount, polyCount;
+        private int ringStart, firstRing;
+        private boolean shellDropped;
+
+        public void startPolygon() {
+            firstRing = ringCount;
+            shellDropped = false;
+        }
+
+        public void startRing() {
+            ringStart = points;
+        }
+
+        public void addPoint(double x, double y) {
+            if (xy.length < points * 2 + 2) xy = Arrays.copyOf(xy, xy.length * 2);
+            xy[points * 2] = x;
+            xy[points * 2 + 1] = y;
+            points++;
+        }
+
+        public void endRing() {
+            int n = points - ringStart;
+            if (n > 0 && (xy[ringStart * 2] != xy[(points - 1) * 2] || xy[ringStart * 2 + 1] != xy[(points - 1) * 2 + 1])) {
+                addPoint(xy[ringStart * 2], xy[ringStart * 2 + 1]);
+                n++;
+            }
+            // only a polygon's first ring can be its shell; a short shell drops the polygon
+            if (n < 4 || shellDropped) {
+                points = ringStart;
+                if (ringCount == firstRing) shellDropped = true;
+                return;
+            }
+            if (rings.length < ringCount + 2) rings = Arrays.copyOf(rings, rings.length * 2);
+            rings[ringCount++] = ringStart;
+        }
+
+        public void endPolygon() {
+            if (ringCount == firstRing) return;
+            if (polys.length < polyCount + 2) polys = Arrays.copyOf(polys, polys.length * 2);
+            polys[polyCount++] = firstRing;
+        }
+
+        public PackedMultiPolygon build() {
+            int[] ringStarts = Arrays.copyOf(rings, ringCount + 1);
+            ringStarts[ringCount] = points;
+            int[] polygonStarts = Arrays.copyOf(polys, polyCount + 1);
+            polygonStarts[polyCount] = ringCount;
+            return new PackedMultiPolygon(DoubleBuffer.wrap(Arrays.copyOf(xy, points * 2)), ringStarts, polygonStarts);
+        }
+    }
+
+    public int getNumPolygons() {
+        return polygonStart.length - 1;
+    }
+
+    /** Index of the shell ring of polygon p; holes follow it up to {@code getFirstRing(p + 1)}. */
+    public int getFirstRing(int polygon) {
+        return polygonStart[polygon];
+    }
+
+    public int getNumRings() {
+        return ringStart.length - 1;
+    }
+
+    /** Rings of polygon p: its shell plus holes. */
+    public int getNumRings(int polygon) {
+        return polygonStart[polygon + 1] - polygonStart[polygon];
+    }
+
+    public int getNumPoints(int ring) {
+        return ringStart[ring + 1] - ringStart[ring];
+    }
+
+    public int getNumPoints() {
+        return ringStart[ringStart.length - 1] - ringStart[0];
+    }
+
+    public double getX(int ring, int i) {
+        return coords.get((ringStart[ring] + i) * 2);
+    }
+
+    public double getY(int ring, int i) {
+        return coords.get((ringStart[ring] + i) * 2 + 1);
+    }
+
+    /** Absolute index of the first point of a ring, for {@link #pointX}/{@link #pointY}. */
+    int getFirstPoint(int ring) {
+        return ringStart[ring];
+    }
+
+    double pointX(int point) {
+        return coords.get(point * 2);
+    }
+
+    double pointY(int point) {
+        return coords.get(point * 2 + 1);
+    }
+
+    public boolean isEmpty() {
+        return getNumPolygons() == 0;
+    }
+
+    /** Zero-copy JTS view of one ring. */
+    public CoordinateSequence ring(int ring) {
+        return new DoubleBufferCoordinateSequence(coords, ringStart[ring] * 2, getNumPoints(ring));
+    }
+
+    /** JTS MultiPolygon whose rings read from the packed coordinates. */
+    public MultiPolygon toJts() {
+        Polygon[] polys = new Polygon[getNumPolygons()];
+        for (int p = 0; p < polys.length; p++) {
+            int first = polygonStart[p], end = polygonStart[p + 1];
+            LinearRing[] holes = new LinearRing[end - first - 1];
+            for (int k = 0; k < holes.length; k++) holes[k] = GEOM_FACTORY.createLinearRing(ring(first + 1 + k));
+            polys[p] = GEOM_FACTORY.createPolygon(GEOM_FACTORY.createLinearRing(ring(first)), holes);
+        }
+        return GEOM_FACTORY.createMultiPolygon(polys);
+    }
+
+    /** Heap GeoJsonMultiPolygon, for callers that need the stored form (e.g. entity JSON). */
+    public GeoJsonMultiPolygon toGeoJson() {
+        List<GeoJsonPolygon> polys = new ArrayList<>(getNumPolygons());
+        for (int p = 0; p < getNumPolygons(); p++) {
+            int first = polygonStart[p], end = polygonStart[p + 1];
+            GeoJsonPolygon gp = new GeoJsonPolygon(points(first));
+            for (int k = first + 1; k < end; k++) gp = gp.withInnerRing(points(k));
+            polys.add(gp);
+        }
+        return new GeoJsonMultiPolygon(polys);
+    }
+
+    private List<Point> points(int ring) {
+        int n = getNumPoints(ring);
+        List<Point> pts = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) pts.add(new Point(getX(ring, i), getY(ring, i)));
+        return pts;
+    }
+
+    /** Write as a GeoJSON MultiPolygon geometry object. */
+    public void writeGeoJson(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "MultiPolygon");
+        gen.writeArrayFieldStart("coordinates");
+        for (int p = 0; p < getNumPolygons(); p++) {
+            gen.writeStartArray();
+            for (int k = polygonStart[p]; k < polygonStart[p + 1]; k++) {
+                gen.writeStartArray();
+                for (int i = 0, n = getNumPoints(k); i < n; i++) {
+                    gen.writeStartArray();
+                    gen.writeNumber(getX(k, i));
+                    gen.writeNumber(getY(k, i));
+                    gen.writeEndArray();
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,129 @@
+package com.voicemap.backend.service;
+
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Point-in-polygon and rectangle tests straight off a PackedMultiPolygon's coordinates.
+ *
+ * Stands in for JTS PreparedGeometry, whose point locator and segment index copy every
+ * vertex into a Coordinate (and a segment object) and keep them for the life of the index.
+ * Here the only per-vertex state is an int: boundary segments, named by the absolute
+ * index of their first point, are bucketed into horizontal bands of the envelope, so a
+ * lookup scans just the segments whose y-range covers the band it falls in.
+ *
+ * Points on the boundary count as inside, matching {@code PreparedGeometry.intersects}.
+ * Immutable and thread-safe.
+ */
+final class PackedPolygonLocator {
+
+    // average segments per band; bands are cheap, so keep them short
+    private static final int SEGMENTS_PER_BAND = 8;
+
+    private final PackedMultiPolygon g;
+    private final Envelope envelope = new Envelope();
+    private final double minY;
+    private final double bandHeight;
+    private final int bands;
+    // segments of band b are segments[bandStart[b] .. bandStart[b + 1])
+    private final int[] bandStart;
+    private final int[] segments;
+
+    PackedPolygonLocator(PackedMultiPolygon g) {
+        this.g = g;
+        int count = 0;
+        for (int k = 0; k < g.getNumRings(); k++) {
+            int first = g.getFirstPoint(k), n = g.getNumPoints(k);
+            for (int i = 0; i < n; i++) envelope.expandToInclude(g.pointX(first + i), g.pointY(first + i));
+            count += Math.max(0, n - 1);
+        }
+        this.minY = envelope.isNull() ? 0 : envelope.getMinY();
+        this.bands = Math.max(1, count / SEGMENTS_PER_BAND);
+        double height = envelope.isNull() ? 0 : envelope.getHeight() / bands;
+        this.bandHeight = height > 0 ? height : 1;
+
+        // count, prefix-sum, fill: one int per (segment, band it spans)
+        this.bandStart = new int[bands + 1];
+        for (int k = 0; k < g.getNumRings(); k++) {
+            int first = g.getFirstPoint(k);
+            for (int p = first, end = first + g.getNumPoints(k) - 1; p < end; p++) {
+                for (int b = band(Math.min(g.pointY(p), g.pointY(p + 1))),
+                     last = band(Math.max(g.pointY(p), g.pointY(p + 1))); b <= last; b++) {
+                    bandStart[b + 1]++;
+                }
+            }
+        }
+        for (int b = 0; b < bands; b++) bandStart[b + 1] += bandStart[b];
+        this.segments = new int[bandStart[bands]];
+        int[] next = bandStart.clone();
+        for (int k = 0; k < g.getNumRings(); k++) {
+            int first = g.getFirstPoint(k);
+            for (int p = first, end = first + g.getNumPoints(k) - 1; p < end; p++) {
+                for (int b = band(Math.min(g.pointY(p), g.pointY(p + 1))),
+                     last = band(Math.max(g.pointY(p), g.pointY(p + 1))); b <= last; b++) {
+                    segments[next[b]++] = p;
+                }
+            }
+        }
+    }
+
+    Envelope getEnvelope() {
+        return envelope;
+    }
+
+    private int band(double y) {
+        int b = (int) ((y - minY) / bandHeight);
+        return b < 0 ? 0 : Math.min(b, bands - 1);
+    }
+
+    /** True when (x, y) lies in the interior or on the boundary. */
+    boolean covers(double x, double y) {
+        if (!envelope.covers(x, y)) return false;
+        boolean inside = false;
+        int b = band(y);
+        for (int s = bandStart[b], end = bandStart[b + 1]; s < end; s++) {
+            int p = segments[s];
+            double x1 = g.pointX(p), y1 = g.pointY(p), x2 = g.pointX(p + 1), y2 = g.pointY(p + 1);
+            double side = (x2 - x1) * (y - y1) - (x - x1) * (y2 - y1);
+            if (side == 0 && x >= Math.min(x1, x2) && x <= Math.max(x1, x2)
+                    && y >= Math.min(y1, y2) && y <= Math.max(y1, y2)) {
+                return true;
+            }
+            // even-odd count of edges crossing the ray from (x, y) towards +x
+            if ((y1 > y) != (y2 > y) && (y2 > y1 ? side > 0 : side < 0)) inside = !inside;
+        }
+        return inside;
+    }
+
+    /** True when the rectangle and the polygons share at least one point. */
+    boolean intersects(Envelope r) {
+        if (!envelope.intersects(r)) return false;
+        // rectangle inside the polygons (or overlapping their interior at a corner)
+        if (covers(r.getMinX(), r.getMinY())) return true;
+        // otherwise they meet only if some boundary segment touches the rectangle
+        for (int b = band(r.getMinY()), last = band(r.getMaxY()); b <= last; b++) {
+            for (int s = bandStart[b], end = bandStart[b + 1]; s < end; s++) {
+                int p = segments[s];
+                if (segmentIntersects(r, g.pointX(p), g.pointY(p), g.pointX(p + 1), g.pointY(p + 1))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean segmentIntersects(Envelope r, double x1, double y1, double x2, double y2) {
+        if (Math.max(x1, x2) < r.getMinX() || Math.min(x1, x2) > r.getMaxX()
+                || Math.max(y1, y2) < r.getMinY() || Math.min(y1, y2) > r.getMaxY()) {
+            return false;
+        }
+        if (r.covers(x1, y1) || r.covers(x2, y2)) return true;
+        // bounding boxes overlap: the segment crosses the rectangle unless all corners are on one side
+        double a = side(x1, y1, x2, y2, r.getMinX(), r.getMinY());
+        double b = side(x1, y1, x2, y2, r.getMaxX(), r.getMinY());
+        double c = side(x1, y1, x2, y2, r.getMaxX(), r.getMaxY());
+        double d = side(x1, y1, x2, y2, r.getMinX(), r.getMaxY());
+        return !((a > 0 && b > 0 && c > 0 && d > 0) || (a < 0 && b < 0 && c < 0 && d < 0));
+    }
+
+    private static double side(double x1, double y1, double x2, double y2, double x, double y) {
+        return (x2 - x1) * (y - y1) - (x - x1) * (y2 - y1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.voicemap.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.voicemap.backend.model.Pincode;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports the pincode points GeoJSON (properties Pincode/PINCODE, Office_Name, Division,
+ * Region, Circle) with the streaming feature reader. Shared by the startup loader and
+ * the pincode import endpoints.
+ */
+public class PincodeImporter {
+
+    private final PincodeService service;
+    private final List<String> failures = new ArrayList<>();
+
+    public PincodeImporter(PincodeService service) {
+        this.service = service;
+    }
+
+    /**
+     * Returns the number of pincodes written; features without a code or point are skipped.
+     * Pincodes are upserted in bulk batches, so re-importing a file updates in place.
+     */
+    public int importFromGeoJson(InputStream in) throws Exception {
+        return importFromGeoJson(in, new ImportProgress());
+    }
+
+    /** Same, resuming, checkpointing and cancelling through {@code progress}. */
+    public int importFromGeoJson(InputStream in, ImportProgress progress) throws Exception {
+        BulkWriter<Pincode> writer = service.bulkWriter();
+        try (GeoJsonFeatureReader features = new GeoJsonFeatureReader(in)) {
+            features.skip(progress.getResumeFrom());
+            while (features.hasNext() && !progress.isCancelled()) {
+                JsonNode feature = features.next();
+                progress.featureRead();
+                Pincode p;
+                try {
+                    p = toPincode(feature);
+                } catch (RuntimeException ex) {
+                    // malformed feature — continue
+                    p = null;
+                }
+                if (p == null) {
+                    progress.featureSkipped();
+                    continue;
+                }
+                writer.add(p, "pincode " + p.getPincode());
+                if (writer.getPending() == 0) progress.checkpoint(features.getRead(), writer.getWritten());
+            }
+            writer.flush();
+            progress.checkpoint(features.getRead(), writer.getWritten());
+        }
+        failures.addAll(writer.getFailures());
+        return writer.getWritten();
+    }
+
+    /** Per-document write failures from the last import. */
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    static Pincode toPincode(JsonNode f) {
+        JsonNode geom = f.get("geometry");
+        JsonNode props = f.get("properties");
+        if (geom == null || !geom.has("coordinates")) return null;
+        JsonNode coords = geom.get("coordinates");
+        double lon = coords.get(0).asDouble();
+        double lat = coords.get(1).asDouble();
+        String code = null;
+        if (props != null && props.has("Pincode")) code = props.get("Pincode").asText();
+        else if (props != null && props.has("PINCODE")) code = props.get("PINCODE").asText();
+        if (code == null) return null;
+        Pincode p = new Pincode();
+        p.setPincode(code);
+        if (props.has("Office_Name")) p.setOfficeName(props.get("Office_Name").asText());
+        if (props.has("Division")) p.setDivision(props.get("Division").asText());
+        if (props.has("Region")) p.setRegion(props.get("Region").asText());
+        if (props.has("Circle")) p.setCircle(props.get("Circle").asText());
+        p.setLocation(new GeoJsonPoint(lon, lat));
+        return p;
+    }
+}
@@ -2,6 +2,11 @@ package com.voicemap.backend.service;
 
 import com.voicemap.backend.model.Pincode;
 import com.voicemap.backend.repository.PincodeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,9 +15,14 @@ import java.util.Optional;
 @Service
 public class PincodeService {
     private final PincodeRepository repo;
+    private final MongoTemplate mongoTemplate;
+    private final int importBatchSize;
 
-    public PincodeService(PincodeRepository repo) {
+    public PincodeService(PincodeRepository repo, MongoTemplate mongoTemplate,
+                          @Value("${voicemap.import.batch-size:1000}") int importBatchSize) {
         this.repo = repo;
+        this.mongoTemplate = mongoTemplate;
+        this.importBatchSize = importBatchSize;
     }
 
     public Optional<Pincode> findByCode(String code) {
@@ -31,6 +41,21 @@ public class PincodeService {
         return repo.save(p);
     }
 
+    /** Batched writer for imports; upserts on the pincode, setting only the imported fields. */
+    public BulkWriter<Pincode> bulkWriter() {
+        return new BulkWriter<>(mongoTemplate, Pincode.class, importBatchSize,
+                p -> new Query(Criteria.where("pincode").is(p.getPincode())), PincodeService::importUpdate, null);
+    }
+
+    static Update importUpdate(Pincode p) {
+        return new Update()
+                .set("officeName", p.getOfficeName())
+                .set("division", p.getDivision())
+                .set("region", p.getRegion())
+                .set("circle", p.getCircle())
+                .set("location", p.getLocation());
+    }
+
     public long count() {
         return repo.count();
     }
@@ -0,0 +1,65 @@
+package com.voicemap.backend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Just enough of the protobuf wire format for the binary geometry encoders
+ * (vector tiles and Geobuf). Messages are built bottom-up: encode a nested message
+ * into its own writer, then embed it with {@link #bytes}.
+ */
+public class ProtoWriter {
+
+    private final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+
+    public void uint32(int field, int value) {
+        tag(field, 0);
+        varint(value & 0xFFFFFFFFL);
+    }
+
+    public void string(int field, String value) {
+        bytes(field, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void bytes(int field, byte[] value) {
+        tag(field, 2);
+        varint(value.length);
+        buf.write(value, 0, value.length);
+    }
+
+    public void packed(int field, List<Integer> values) {
+        if (values.isEmpty()) return;
+        ProtoWriter inner = new ProtoWriter();
+        for (int v : values) inner.varint(v & 0xFFFFFFFFL);
+        bytes(field, inner.toByteArray());
+    }
+
+    /** Packed sint64 (zigzag) values from {@code values[0..count)}. */
+    public void packedSint64(int field, long[] values, int count) {
+        if (count == 0) return;
+        ProtoWriter inner = new ProtoWriter();
+        for (int i = 0; i < count; i++) inner.varint((values[i] << 1) ^ (values[i] >> 63));
+        bytes(field, inner.toByteArray());
+    }
+
+    public int size() {
+        return buf.size();
+    }
+
+    public byte[] toByteArray() {
+        return buf.toByteArray();
+    }
+
+    private void tag(int field, int wireType) {
+        varint(((long) field << 3) | wireType);
+    }
+
+    private void varint(long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.write((int) v);
+    }
+}
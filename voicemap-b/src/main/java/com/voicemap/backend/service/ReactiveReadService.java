@@ -0,0 +1,104 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.voicemap.backend.model.Grievance;
+import com.voicemap.backend.model.Pincode;
+import com.voicemap.backend.model.Region;
+import org.bson.conversions.Bson;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+/**
+ * Non-blocking reads for the region, pincode and grievance APIs on the reactive driver.
+ *
+ * Results are cursor-backed Flux/Mono: nothing holds a request thread while Mongo works,
+ * and the cursor only fetches further batches as the subscriber asks for more. Regions
+ * are decoded through RegionCodec (packedGeo set, geo null), as in RegionReader.
+ */
+@Service
+public class ReactiveReadService {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    // built on first use, as in RegionReader
+    private volatile MongoCollection<Region> regions;
+
+    public ReactiveReadService(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    private Mono<MongoCollection<Region>> regions() {
+        MongoCollection<Region> c = regions;
+        if (c != null) return Mono.just(c);
+        return reactiveMongoTemplate.getCollection("regions").map(docs -> {
+            MongoCollection<Region> built = docs.withDocumentClass(Region.class)
+                    .withCodecRegistry(RegionCodec.registry(docs.getCodecRegistry()));
+            regions = built;
+            return built;
+        });
+    }
+
+    /** Only {@code fields} (document field names, plus _id) are fetched and decoded. */
+    public Flux<Region> findRegions(Bson filter, Collection<String> fields) {
+        Bson projection = Projections.include(fields.toArray(new String[0]));
+        return regions().flatMapMany(c -> c.find(filter).projection(projection));
+    }
+
+    /** Regions of a type, or all regions when {@code type} is null. */
+    public Flux<Region> findRegionsByType(String type, Collection<String> fields) {
+        return findRegions(type == null ? Filters.empty() : Filters.eq("type", type), fields);
+    }
+
+    /**
+     * Full regions (with packed geometry) of a type; with a viewport [minLon, minLat, maxLon, maxLat]
+     * only those whose stored bbox meets it, as RegionService.findIntersecting's Mongo path.
+     */
+    public Flux<Region> findRegionsWithGeometry(String type, double[] bbox) {
+        Bson filter = bbox == null ? Filters.eq("type", type) : Filters.and(
+                Filters.eq("type", type),
+                Filters.lte("bbox.0", bbox[2]),
+                Filters.lte("bbox.1", bbox[3]),
+                Filters.gte("bbox.2", bbox[0]),
+                Filters.gte("bbox.3", bbox[1]));
+        return regions().flatMapMany(c -> c.find(filter));
+    }
+
+    /** Regions whose name contains {@code q} (case-insensitive), as RegionService.searchSummaries. */
+    public Flux<Region> searchRegions(String q, Collection<String> fields) {
+        String cleaned = q.replaceAll("[^A-Za-z0-9 ]", "");
+        return findRegions(Filters.regex("name", ".*" + cleaned + ".*", "i"), fields);
+    }
+
+    public Mono<Pincode> findPincode(String code) {
+        return reactiveMongoTemplate.findOne(new Query(Criteria.where("pincode").is(code)), Pincode.class);
+    }
+
+    public Flux<Pincode> searchPincodePrefix(String prefix, int limit) {
+        Query q = new Query(Criteria.where("pincode").regex("^" + Pattern.quote(prefix)))
+                .with(Sort.by("pincode"))
+                .limit(limit);
+        return reactiveMongoTemplate.find(q, Pincode.class);
+    }
+
+    /** Newest first, optionally filtered by district and category. */
+    public Flux<Grievance> findGrievances(String district, String category, int limit) {
+        Query q = new Query();
+        if (district != null) q.addCriteria(Criteria.where("district").is(district));
+        if (category != null) q.addCriteria(Criteria.where("category").is(category));
+        q.with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(limit);
+        return reactiveMongoTemplate.find(q, Grievance.class);
+    }
+
+    public Mono<Grievance> findGrievance(String id) {
+        return reactiveMongoTemplate.findById(id, Grievance.class);
+    }
+}
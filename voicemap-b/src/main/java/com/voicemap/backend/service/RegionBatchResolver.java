@@ -0,0 +1,127 @@
+package com.voicemap.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.voicemap.backend.dto.BatchPoint;
+import com.voicemap.backend.dto.BatchPointResult;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reverse-geocodes large point batches.
+ *
+ * Points are read incrementally (a JSON array or newline-delimited objects) and
+ * processed in chunks: each chunk is ordered along a Morton curve so neighbouring
+ * points hit the same index nodes, resolved in parallel, and written out as NDJSON
+ * in request order before the next chunk is read.
+ */
+@Service
+public class RegionBatchResolver {
+
+    static final int CHUNK_SIZE = 4096;
+
+    private final RegionService regionService;
+    // the response stream stays open across result lines
+    private final ObjectMapper mapper = new ObjectMapper().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public RegionBatchResolver(RegionService regionService) {
+        this.regionService = regionService;
+    }
+
+    /**
+     * Read points from {@code in} and write one result line per point to {@code out}.
+     * Returns the number of points processed.
+     */
+    public long resolve(InputStream in, OutputStream out) throws IOException {
+        ObjectWriter writer = mapper.writerFor(BatchPointResult.class);
+        long index = 0;
+        try (MappingIterator<BatchPoint> it = mapper.readerFor(BatchPoint.class).readValues(in)) {
+            List<BatchPoint> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (it.hasNextValue()) {
+                chunk.add(it.nextValue());
+                if (chunk.size() == CHUNK_SIZE) {
+                    index = writeChunk(chunk, index, writer, out);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) index = writeChunk(chunk, index, writer, out);
+        }
+        out.flush();
+        return index;
+    }
+
+    private long writeChunk(List<BatchPoint> chunk, long firstIndex, ObjectWriter writer, OutputStream out)
+            throws IOException {
+        BatchPointResult[] results = resolveChunk(chunk, firstIndex);
+        for (BatchPointResult r : results) {
+            writer.writeValue(out, r);
+            out.write('\n');
+        }
+        out.flush();
+        return firstIndex + results.length;
+    }
+
+    BatchPointResult[] resolveChunk(List<BatchPoint> chunk, long firstIndex) {
+        int n = chunk.size();
+        long[] keyed = new long[n];
+        for (int i = 0; i < n; i++) {
+            BatchPoint p = chunk.get(i);
+            long code = valid(p) ? morton(p.getLng(), p.getLat()) : 0L;
+            // high 32 bits: curve position, low 32 bits: original slot
+            keyed[i] = (code << 32) | i;
+        }
+        Arrays.sort(keyed);
+
+        BatchPointResult[] results = new BatchPointResult[n];
+        IntStream.range(0, n).parallel().forEach(k -> {
+            int slot = (int) keyed[k];
+            BatchPoint p = chunk.get(slot);
+            BatchPointResult r = new BatchPointResult();
+            r.setIndex(firstIndex + slot);
+            r.setId(p.getId());
+            r.setLat(p.getLat());
+            r.setLng(p.getLng());
+            if (!valid(p)) {
+                r.setError("lat and lng are required and must be within range");
+            } else {
+                try {
+                    r.setRegions(regionService.resolveChain(p.getLat(), p.getLng()));
+                } catch (Exception ex) {
+                    r.setError(ex.getMessage());
+                }
+            }
+            results[slot] = r;
+        });
+        return results;
+    }
+
+    private static boolean valid(BatchPoint p) {
+        return p != null && p.getLat() != null && p.getLng() != null
+                && Math.abs(p.getLat()) <= 90 && Math.abs(p.getLng()) <= 180;
+    }
+
+    // Interleave 16-bit quantized lon/lat into a 32-bit Z-order key.
+    static long morton(double lon, double lat) {
+        long x = (long) ((lon + 180.0) / 360.0 * 0xFFFF);
+        long y = (long) ((lat + 90.0) / 180.0 * 0xFFFF);
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(long v) {
+        v &= 0xFFFF;
+        v = (v | (v << 8)) & 0x00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0FL;
+        v = (v | (v << 2)) & 0x33333333L;
+        v = (v | (v << 1)) & 0x55555555L;
+        return v;
+    }
+}
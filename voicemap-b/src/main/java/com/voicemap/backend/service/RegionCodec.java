@@ -0,0 +1,300 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.MongoClientSettings;
+import com.voicemap.backend.model.Region;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * BSON codec for the regions collection that bypasses Spring Data's reflective mapping.
+ *
+ * Reads and writes the document shape MappingMongoConverter does, but geo is read straight
+ * from the coordinate arrays into a PackedMultiPolygon (Region.packedGeo; geo itself stays
+ * null) instead of GeoJsonPolygon / Point objects, and written back from it. Unknown fields
+ * are skipped, so projections that leave out geo simply yield no geometry; so are values of
+ * an unexpected BSON type (e.g. a hand-edited document), except that numeric codes and
+ * names are read as text.
+ */
+public class RegionCodec implements Codec<Region> {
+
+    private static final String CLASS_NAME = Region.class.getName();
+    private static final RegionCodec DEFAULT = new RegionCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+    private final Codec<Document> documentCodec;
+
+    public RegionCodec(CodecRegistry registry) {
+        this.documentCodec = registry.get(Document.class);
+    }
+
+    /** {@code base} with this codec in front of it, for a collection's withCodecRegistry. */
+    public static CodecRegistry registry(CodecRegistry base) {
+        return CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(new RegionCodec(base)), base);
+    }
+
+    /**
+     * The document {@link #encode} writes for a region. Its values are BSON values, which
+     * Spring Data passes through unmapped, so they can go into a MongoTemplate update as is
+     * (see RegionService.importUpdate).
+     */
+    public static BsonDocument toBsonDocument(Region r) {
+        BsonDocument doc = new BsonDocument();
+        DEFAULT.encode(new BsonDocumentWriter(doc), r, EncoderContext.builder().build());
+        return doc;
+    }
+
+    @Override
+    public Class<Region> getEncoderClass() {
+        return Region.class;
+    }
+
+    @Override
+    public Region decode(BsonReader reader, DecoderContext ctx) {
+        Region r = new Region();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            BsonType type = reader.getCurrentBsonType();
+            switch (field) {
+                case "_id" -> r.setId(type == BsonType.OBJECT_ID ? reader.readObjectId().toHexString() : readText(reader));
+                case "name" -> r.setName(readText(reader));
+                case "code" -> r.setCode(readText(reader));
+                case "type" -> r.setType(readText(reader));
+                case "state" -> r.setState(readText(reader));
+                case "district" -> r.setDistrict(readText(reader));
+                case "parentId" -> r.setParentId(readText(reader));
+                case "source" -> r.setSource(readText(reader));
+                case "sourceId" -> r.setSourceId(readText(reader));
+                case "fingerprint" -> r.setFingerprint(readText(reader));
+                case "sourceYear" -> {
+                    if (isNumber(type)) r.setSourceYear((int) readNumber(reader));
+                    else reader.skipValue();
+                }
+                case "verified" -> {
+                    if (type == BsonType.BOOLEAN) r.setVerified(reader.readBoolean());
+                    else reader.skipValue();
+                }
+                case "createdAt" -> r.setCreatedAt(readInstant(reader));
+                case "updatedAt" -> r.setUpdatedAt(readInstant(reader));
+                case "centroid" -> r.setCentroid(readDoubles(reader));
+                case "bbox" -> r.setBbox(readDoubles(reader));
+                case "meta" -> {
+                    if (type == BsonType.DOCUMENT) r.setMeta(documentCodec.decode(reader, ctx));
+                    else reader.skipValue();
+                }
+                case "geo" -> {
+                    if (type == BsonType.DOCUMENT) r.setPackedGeo(readGeo(reader));
+                    else reader.skipValue();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return r;
+    }
+
+    /** GeoJSON MultiPolygon (or Polygon) document -> packed coordinates. */
+    private static PackedMultiPolygon readGeo(BsonReader reader) {
+        PackedMultiPolygon.Builder b = new PackedMultiPolygon.Builder();
+        boolean single = false;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (field.equals("type")) {
+                single = "Polygon".equals(readText(reader));
+            } else if (field.equals("coordinates")) {
+                reader.readStartArray();
+                if (single) {
+                    readPolygon(reader, b);
+                } else {
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        reader.readStartArray();
+                        readPolygon(reader, b);
+                        reader.readEndArray();
+                    }
+                }
+                reader.readEndArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return b.build();
+    }
+
+    // reader is inside the polygon's array of rings; the caller closes it
+    private static void readPolygon(BsonReader reader, PackedMultiPolygon.Builder b) {
+        b.startPolygon();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            b.startRing();
+            reader.readStartArray();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                reader.readStartArray();
+                reader.readBsonType();
+                double x = readNumber(reader);
+                reader.readBsonType();
+                double y = readNumber(reader);
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) reader.skipValue();
+                reader.readEndArray();
+                b.addPoint(x, y);
+            }
+            reader.readEndArray();
+            b.endRing();
+        }
+        b.endPolygon();
+    }
+
+    // strings as is, numbers (e.g. a code stored as an int) as their text; anything else is skipped
+    private static String readText(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case STRING -> reader.readString();
+            case SYMBOL -> reader.readSymbol();
+            case INT32 -> String.valueOf(reader.readInt32());
+            case INT64 -> String.valueOf(reader.readInt64());
+            case DOUBLE -> {
+                double d = reader.readDouble();
+                yield d == Math.rint(d) && Math.abs(d) < 1e15 ? String.valueOf((long) d) : String.valueOf(d);
+            }
+            case DECIMAL128 -> reader.readDecimal128().toString();
+            default -> {
+                reader.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    private static Instant readInstant(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) return Instant.ofEpochMilli(reader.readDateTime());
+        reader.skipValue();
+        return null;
+    }
+
+    private static boolean isNumber(BsonType type) {
+        return type == BsonType.DOUBLE || type == BsonType.INT32 || type == BsonType.INT64 || type == BsonType.DECIMAL128;
+    }
+
+    private static double readNumber(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOUBLE -> reader.readDouble();
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DECIMAL128 -> reader.readDecimal128().doubleValue();
+            default -> throw new IllegalStateException("Expected a number, got " + reader.getCurrentBsonType());
+        };
+    }
+
+    // non-numeric elements are dropped
+    private static double[] readDoubles(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        double[] out = new double[4];
+        int n = 0;
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (!isNumber(reader.getCurrentBsonType())) {
+                reader.skipValue();
+                continue;
+            }
+            if (n == out.length) out = Arrays.copyOf(out, n * 2);
+            out[n++] = readNumber(reader);
+        }
+        reader.readEndArray();
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Writes the fields in the order MappingMongoConverter does, null ones left out; geo
+     * comes from packedGeo, or is packed from geo when only that is set.
+     */
+    @Override
+    public void encode(BsonWriter writer, Region r, EncoderContext ctx) {
+        writer.writeStartDocument();
+        if (r.getId() != null) {
+            writer.writeName("_id");
+            if (ObjectId.isValid(r.getId())) writer.writeObjectId(new ObjectId(r.getId()));
+            else writer.writeString(r.getId());
+        }
+        writeString(writer, "name", r.getName());
+        writeString(writer, "code", r.getCode());
+        writeString(writer, "type", r.getType());
+        writeString(writer, "state", r.getState());
+        writeString(writer, "district", r.getDistrict());
+        PackedMultiPolygon geo = r.getPackedGeo() != null ? r.getPackedGeo()
+                : r.getGeo() != null ? PackedMultiPolygon.of(r.getGeo()) : null;
+        if (geo != null) {
+            writer.writeName("geo");
+            writeGeo(writer, geo);
+        }
+        writeDoubles(writer, "centroid", r.getCentroid());
+        writeDoubles(writer, "bbox", r.getBbox());
+        writeString(writer, "parentId", r.getParentId());
+        if (r.getMeta() != null) {
+            writer.writeName("meta");
+            documentCodec.encode(writer, new Document(r.getMeta()), ctx);
+        }
+        writeInstant(writer, "createdAt", r.getCreatedAt());
+        writeInstant(writer, "updatedAt", r.getUpdatedAt());
+        writeString(writer, "source", r.getSource());
+        writeString(writer, "sourceId", r.getSourceId());
+        if (r.getSourceYear() != null) writer.writeInt32("sourceYear", r.getSourceYear());
+        writer.writeBoolean("verified", r.isVerified());
+        writeString(writer, "fingerprint", r.getFingerprint());
+        writer.writeString("_class", CLASS_NAME);
+        writer.writeEndDocument();
+    }
+
+    private static void writeGeo(BsonWriter writer, PackedMultiPolygon g) {
+        writer.writeStartDocument();
+        writer.writeString("type", "MultiPolygon");
+        writer.writeStartArray("coordinates");
+        for (int p = 0; p < g.getNumPolygons(); p++) {
+            writer.writeStartArray();
+            for (int k = g.getFirstRing(p), end = k + g.getNumRings(p); k < end; k++) {
+                writer.writeStartArray();
+                for (int i = 0; i < g.getNumPoints(k); i++) {
+                    writer.writeStartArray();
+                    writer.writeDouble(g.getX(k, i));
+                    writer.writeDouble(g.getY(k, i));
+                    writer.writeEndArray();
+                }
+                writer.writeEndArray();
+            }
+            writer.writeEndArray();
+        }
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) writer.writeString(name, value);
+    }
+
+    private static void writeInstant(BsonWriter writer, String name, Instant value) {
+        if (value != null) writer.writeDateTime(name, value.toEpochMilli());
+    }
+
+    private static void writeDoubles(BsonWriter writer, String name, double[] values) {
+        if (values == null) return;
+        writer.writeStartArray(name);
+        for (double v : values) writer.writeDouble(v);
+        writer.writeEndArray();
+    }
+}
@@ -0,0 +1,76 @@
+package com.voicemap.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.voicemap.backend.model.Region;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content hash of an imported boundary feature, used to skip unchanged features on re-import.
+ *
+ * Covers the imported properties and the raw (pre-sanitization) geometry: its type and
+ * every coordinate as a double, in order. Formatting, key order and unrelated properties
+ * in the source file do not affect it; any change to a vertex or an imported property does.
+ */
+public final class RegionFingerprint {
+
+    /** Name given to features without one; it identifies nothing. */
+    public static final String UNNAMED = "unknown";
+
+    private RegionFingerprint() {}
+
+    public static String of(JsonNode geometry, Region r) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        for (String s : new String[]{r.getName(), r.getCode(), r.getState(), r.getDistrict(),
+                r.getType(), r.getSource()}) {
+            if (s != null) md.update(s.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+        JsonNode type = geometry.get("type");
+        if (type != null) md.update(type.asText().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buf = ByteBuffer.allocate(8);
+        hashCoordinates(geometry.get("coordinates"), md, buf);
+        return HexFormat.of().formatHex(md.digest(), 0, 16);
+    }
+
+    // nesting is hashed too, so [[a,b],[c]] and [[a],[b,c]] differ
+    private static void hashCoordinates(JsonNode node, MessageDigest md, ByteBuffer buf) {
+        if (node == null) return;
+        if (node.isArray()) {
+            md.update((byte) '[');
+            for (JsonNode child : node) hashCoordinates(child, md, buf);
+            md.update((byte) ']');
+        } else if (node.isNumber()) {
+            buf.clear();
+            buf.putDouble(node.asDouble());
+            md.update(buf.array());
+        }
+    }
+
+    /**
+     * Identity of a region within a dataset, matching the import upsert query
+     * (RegionService.importKey): type plus code; else type, source and the feature's
+     * source id; else type, state and name. Null when the region has none of these
+     * (a name of {@link #UNNAMED} does not count),
+     * in which case it is inserted and never matched against stored regions.
+     */
+    public static String key(Region r) {
+        return key(r.getType(), r.getState(), r.getCode(), r.getSource(), r.getSourceId(), r.getName());
+    }
+
+    public static String key(String type, String state, String code, String source, String sourceId, String name) {
+        if (code != null) return type + "|c:" + code;
+        if (sourceId != null) return type + "|" + source + "|i:" + sourceId;
+        if (name != null && !UNNAMED.equals(name)) return type + "|" + state + "|n:" + name;
+        return null;
+    }
+}
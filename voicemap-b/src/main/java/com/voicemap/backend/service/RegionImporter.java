@@ -1,80 +1,268 @@
 package com.voicemap.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.voicemap.backend.model.Region;
-import org.springframework.data.mongodb.core.geo.GeoJsonMultiPolygon;
 
 import java.io.InputStream;
-import java.util.Iterator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Imports a GeoJSON FeatureCollection of boundaries as a three-stage pipeline:
+ * the calling thread parses features, a pool of geometry workers sanitizes them
+ * (validation, repair, simplification, bbox, centroid), and a writer thread bulk-writes
+ * the results in input order. The stages are joined by a bounded queue, so a slow
+ * database stalls parsing instead of buffering the whole file.
+ */
 public class RegionImporter {
 
     private final RegionService regionService;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService geometryPool;
+    private final int queueCapacity;
+    private final List<String> failures = new ArrayList<>();
+    // stored regions of this source, loaded per region type the first time the input has it
+    private final Map<String, StoredKeys> stored = new ConcurrentHashMap<>();
+    // RegionFingerprint.keys seen in the input
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
 
+    // feature properties tried in order; the first present one wins
+    private static final String[] NAME_PROPERTIES = {"name", "NAME", "Name", "DISTRICT", "pc_name"};
+    private static final String[] STATE_PROPERTIES = {"state", "st_name", "ST_NM"};
+    private static final String[] ID_PROPERTIES = {"id", "pc_id", "censuscode"};
+
+    /** Geometry work on the common pool; fine for one-off imports, background jobs pass their own pool. */
     public RegionImporter(RegionService regionService) {
+        this(regionService, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() * 4);
+    }
+
+    public RegionImporter(RegionService regionService, ExecutorService geometryPool, int queueCapacity) {
         this.regionService = regionService;
+        this.geometryPool = geometryPool;
+        this.queueCapacity = Math.max(1, queueCapacity);
     }
 
+    // a feature handed from the parser to the writer; region is being built by a worker
+    private record Pending(long index, CompletableFuture<Region> region) {}
+
+    // stored regions of one (source, type) by RegionFingerprint.key, and the ids of those
+    // without a key (a complete pass re-inserts them)
+    private record StoredKeys(Map<String, Region> byKey, List<String> keyless) {}
+
+    private static final Pending END = new Pending(-1, null);
+    // returned by a worker for a feature whose fingerprint matches the stored region
+    private static final Region UNCHANGED = new Region();
+
     /**
      * Import GeoJSON FeatureCollection from InputStream.
      * Each feature should have properties: name, state, type (optional).
      * defaultType is used when properties.type missing.
+     * At most queueCapacity features are in flight at once. Regions are written in bulk
+     * batches; a region replaces the stored one with the same RegionFingerprint.key
+     * (type and code, else source id, else state and name), and one without a key is inserted.
+     * Features whose geometry cannot be converted are reported in getFailures().
+     * Re-imports are incremental: a feature whose fingerprint matches the stored region
+     * of the same source and key is skipped before any geometry work. Nothing is deleted;
+     * see the {@code replace} variant.
+     * Returns the number of regions written.
      */
     public int importFromGeoJson(InputStream in, String source, String defaultType) throws Exception {
-        JsonNode root = mapper.readTree(in);
-        if (!root.has("features") || !root.get("features").isArray()) {
-            throw new IllegalArgumentException("Invalid GeoJSON FeatureCollection");
+        return importFromGeoJson(in, source, defaultType, false, new ImportProgress());
+    }
+
+    /**
+     * Same, reporting to {@code progress}: skips the features it says are already
+     * committed, checkpoints after every bulk flush, and stops parsing when cancelled
+     * (features already handed to the workers are still written).
+     * The spatial index is rebuilt once when the import stops, not after every flush.
+     *
+     * With {@code replace}, the input is the complete set of its source's regions of
+     * each type it contains: after a complete pass, stored regions of the same source and
+     * one of those types that the input no longer has are deleted. Other types imported
+     * under the same source are never touched.
+     */
+    public int importFromGeoJson(InputStream in, String source, String defaultType, boolean replace,
+                                 ImportProgress progress) throws Exception {
+        try {
+            return runPipeline(in, source, defaultType, replace, progress);
+        } finally {
+            regionService.importFinished();
         }
+    }
+
+    private int runPipeline(InputStream in, String source, String defaultType, boolean replace,
+                            ImportProgress progress) throws Exception {
+        BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(queueCapacity);
+        BulkWriter<Region> writer = regionService.bulkWriter();
+        AtomicReference<Throwable> writerError = new AtomicReference<>();
 
-        int count = 0;
-        Iterator<JsonNode> it = root.get("features").elements();
-        while (it.hasNext()) {
-            JsonNode feature = it.next();
-            JsonNode props = feature.get("properties");
-            JsonNode geom = feature.get("geometry");
-            if (geom == null) continue;
-
-            String name = null;
-            if (props != null) {
-                if (props.has("name")) name = props.get("name").asText();
-                else if (props.has("NAME")) name = props.get("NAME").asText();
-                else if (props.has("Name")) name = props.get("Name").asText();
+        Thread writerThread = new Thread(() -> {
+            try {
+                drain(queue, writer, progress);
+            } catch (Throwable ex) {
+                writerError.set(ex);
             }
+        }, "region-import-writer");
+        writerThread.start();
 
-            String state = props != null && props.has("state") ? props.get("state").asText() : null;
-            String code = props != null && props.has("code") ? props.get("code").asText() : null;
-            String type = props != null && props.has("type") ? props.get("type").asText() : defaultType;
+        try (GeoJsonFeatureReader features = new GeoJsonFeatureReader(in)) {
+            features.skip(progress.getResumeFrom());
+            while (features.hasNext() && writerError.get() == null && !progress.isCancelled()) {
+                long index = features.getRead();
+                JsonNode feature = features.next();
+                progress.featureRead();
+                Pending p = new Pending(index, CompletableFuture.supplyAsync(
+                        () -> toRegion(feature, source, defaultType), geometryPool));
+                while (!queue.offer(p, 100, TimeUnit.MILLISECONDS)) {
+                    if (writerError.get() != null) break;
+                }
+            }
+        } finally {
+            // always release the writer, even if parsing failed
+            while (writerThread.isAlive() && !queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                // writer still busy with a full queue
+            }
+            writerThread.join();
+        }
 
-            if (name == null) {
-                // try fallback properties
-                if (props != null && props.has("DISTRICT")) name = props.get("DISTRICT").asText();
-                else name = "unknown";
+        Throwable err = writerError.get();
+        if (err instanceof Exception ex) throw ex;
+        if (err != null) throw new IllegalStateException(err);
+        if (replace) removeMissing(source, progress);
+        return writer.getWritten();
+    }
+
+    private void drain(BlockingQueue<Pending> queue, BulkWriter<Region> writer, ImportProgress progress)
+            throws InterruptedException {
+        long next = progress.getResumeFrom();
+        while (true) {
+            Pending p = queue.take();
+            if (p == END) break;
+            next = p.index() + 1;
+            Region r;
+            try {
+                r = p.region().join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause() == null ? ex : ex.getCause();
+                failures.add("feature " + p.index() + ": " + cause.getMessage());
+                progress.featureSkipped();
+                continue;
+            }
+            if (r == null) {
+                progress.featureSkipped();
+                continue;
+            }
+            if (r == UNCHANGED) {
+                progress.featureUnchanged();
+                continue;
             }
+            writer.add(r, "feature " + p.index() + " (" + r.getName() + ")");
+            if (writer.getPending() == 0) progress.checkpoint(next, writer.getWritten());
+        }
+        writer.flush();
+        failures.addAll(writer.getFailures());
+        progress.checkpoint(next, writer.getWritten());
+    }
 
-            Region r = new Region();
-            r.setName(name);
-            r.setCode(code);
-            r.setState(state);
-            r.setType(type);
-            r.setSource(source);
-            if (source != null && source.matches("\\d{4}")) {
-                r.setSourceYear(Integer.parseInt(source));
+    /**
+     * Delete stored regions of the source, of the types the input contains, that the input
+     * no longer has, and the keyless ones this pass inserted afresh. Only safe after a
+     * complete pass: a cancelled run, or a resumed one that skipped features without
+     * reading their keys, leaves them alone.
+     */
+    private void removeMissing(String source, ImportProgress progress) {
+        if (source == null || progress.isCancelled() || progress.getResumeFrom() > 0) return;
+        List<String> ids = new ArrayList<>();
+        for (StoredKeys keys : stored.values()) {
+            ids.addAll(keys.keyless());
+            for (Map.Entry<String, Region> e : keys.byKey().entrySet()) {
+                if (!seen.contains(e.getKey())) ids.add(e.getValue().getId());
             }
+        }
+        regionService.deleteByIds(ids);
+        progress.removed(ids.size());
+    }
+
+    // first feature of a type loads that type's stored keys; later ones of the type wait for it
+    private StoredKeys storedKeys(String source, String type) {
+        return stored.computeIfAbsent(type == null ? "" : type, t -> {
+            Map<String, Region> byKey = new HashMap<>();
+            List<String> keyless = new ArrayList<>();
+            for (Region r : regionService.findImportKeys(source, type)) {
+                String key = RegionFingerprint.key(r);
+                if (key == null) keyless.add(r.getId());
+                else byKey.put(key, r);
+            }
+            return new StoredKeys(byKey, keyless);
+        });
+    }
 
-            GeoJsonMultiPolygon multi = GeoJsonConverter.toMultiPolygon(geom);
-            r.setGeo(multi);
+    /** Per-document failures (geometry or write) from the last import. */
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    private Region toRegion(JsonNode feature, String source, String defaultType) {
+        JsonNode props = feature.get("properties");
+        JsonNode geom = feature.get("geometry");
+        if (geom == null) return null;
+
+        String name = text(props, NAME_PROPERTIES);
+        String state = text(props, STATE_PROPERTIES);
+        String code = text(props, "code");
+        String type = props != null && props.has("type") ? props.get("type").asText() : defaultType;
+        String sourceId = feature.hasNonNull("id") ? feature.get("id").asText() : text(props, ID_PROPERTIES);
+
+        Region r = new Region();
+        r.setName(name != null ? name : RegionFingerprint.UNNAMED);
+        r.setCode(code);
+        r.setState(state);
+        r.setType(type);
+        r.setSource(source);
+        r.setSourceId(sourceId);
+        if (source != null && source.matches("\\d{4}")) {
+            r.setSourceYear(Integer.parseInt(source));
+        }
 
-            double[] bbox = GeoJsonConverter.calcBBox(geom);
-            r.setBbox(bbox);
+        StoredKeys known = storedKeys(source, type);
+        String key = RegionFingerprint.key(r);
+        if (key != null) seen.add(key);
+        r.setFingerprint(RegionFingerprint.of(geom, r));
+        Region previous = key != null ? known.byKey().get(key) : null;
+        if (previous != null && r.getFingerprint().equals(previous.getFingerprint())) return UNCHANGED;
 
-            double[] centroid = GeoJsonConverter.calcCentroid(geom);
-            r.setCentroid(centroid);
+        // packed, not GeoJsonMultiPolygon: RegionCodec writes it without an object graph per point
+        r.setPackedGeo(GeoJsonConverter.toPacked(geom));
+
+        double[] bbox = GeoJsonConverter.calcBBox(geom);
+        r.setBbox(bbox);
+
+        double[] centroid = GeoJsonConverter.calcCentroid(geom);
+        r.setCentroid(centroid);
+
+        r.setCreatedAt(Instant.now());
+        r.setUpdatedAt(r.getCreatedAt());
+        return r;
+    }
 
-            regionService.save(r);
-            count++;
+    private static String text(JsonNode props, String... names) {
+        if (props == null) return null;
+        for (String n : names) {
+            JsonNode v = props.get(n);
+            if (v != null && !v.isNull()) return v.asText();
         }
-        return count;
+        return null;
     }
 }
\ No newline at end of file
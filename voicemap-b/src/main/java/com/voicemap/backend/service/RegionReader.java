@@ -0,0 +1,72 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Projections;
+import com.voicemap.backend.model.Region;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bulk region reads through RegionCodec on the driver collection, for the paths that
+ * load many boundaries at once (collection GeoJSON/TopoJSON/Geobuf, the spatial index,
+ * tile fallback). Regions come back with packedGeo set and geo null.
+ *
+ * With {@code withGeometry=false} the query projects geo away, so the server does not
+ * even send the coordinates; the fields overload fetches an explicit projection.
+ */
+@Component
+public class RegionReader {
+
+    private static final Bson NO_GEOMETRY = Projections.exclude("geo");
+
+    private final MongoTemplate mongoTemplate;
+    // built on first use; a race just builds an equivalent one twice
+    private volatile MongoCollection<Region> regions;
+
+    public RegionReader(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    private MongoCollection<Region> collection() {
+        MongoCollection<Region> c = regions;
+        if (c == null) {
+            MongoCollection<Document> docs = mongoTemplate.getCollection("regions");
+            c = docs.withDocumentClass(Region.class).withCodecRegistry(RegionCodec.registry(docs.getCodecRegistry()));
+            regions = c;
+        }
+        return c;
+    }
+
+    private FindIterable<Region> query(Bson filter, boolean withGeometry) {
+        FindIterable<Region> it = collection().find(filter);
+        return withGeometry ? it : it.projection(NO_GEOMETRY);
+    }
+
+    public List<Region> find(Bson filter, boolean withGeometry) {
+        return query(filter, withGeometry).into(new ArrayList<>());
+    }
+
+    /** Only {@code fields} (document field names, plus _id) are fetched and decoded. */
+    public List<Region> find(Bson filter, Collection<String> fields) {
+        return collection().find(filter).projection(Projections.include(new ArrayList<>(fields))).into(new ArrayList<>());
+    }
+
+    /** Cursor-backed stream; close it when done. */
+    public Stream<Region> stream(Bson filter, boolean withGeometry) {
+        MongoCursor<Region> cursor = query(filter, withGeometry).iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+}
@@ -0,0 +1,154 @@
+package com.voicemap.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized, precompressed responses for the region layers.
+ *
+ * Each entry holds the identity bytes, a gzip variant and a strong ETag derived from
+ * the content. Keys are scoped to the region dataset version, so any write through
+ * RegionService on any instance (including imports) makes old entries unreachable; they are dropped
+ * the next time the cache sees the new version. Concurrent misses for the same key
+ * share one render.
+ */
+@Component
+public class RegionResponseCache {
+
+    /** Renders a response body into the given stream. */
+    public interface BodyRenderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    /** One cached response with its precompressed variants. */
+    public static final class CachedBody {
+        private final byte[] identity;
+        private final byte[] gzip;
+        private final String etag;
+
+        CachedBody(byte[] identity, byte[] gzip, String etag) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public byte[] getIdentity() { return identity; }
+        public byte[] getGzip() { return gzip; }
+
+        /** Strong ETag of the identity representation, quoted. */
+        public String getEtag() { return "\"" + etag + "\""; }
+
+        /** Strong ETag of the gzip representation, quoted. */
+        public String getGzipEtag() { return "\"" + etag + "-gz\""; }
+
+        /** True if an If-None-Match header value matches either representation. */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+            for (String tag : ifNoneMatch.split(",")) {
+                String t = tag.trim();
+                if (t.startsWith("W/")) t = t.substring(2);
+                if (t.equals("*") || t.equals(getEtag()) || t.equals(getGzipEtag())) return true;
+            }
+            return false;
+        }
+    }
+
+    private final RegionService regionService;
+    private final Map<String, CompletableFuture<CachedBody>> entries;
+    private long cachedVersion = -1;
+
+    public RegionResponseCache(RegionService regionService,
+                               @Value("${voicemap.response-cache.max-entries:64}") int maxEntries) {
+        this.regionService = regionService;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<CachedBody>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** Cached body for {@code key} at the current dataset version, rendering it on a miss. */
+    public CachedBody get(String key, BodyRenderer renderer) throws IOException {
+        long version = regionService.getDatasetVersion();
+        String versionedKey = key + "|" + version;
+        CompletableFuture<CachedBody> future;
+        boolean owner = false;
+        synchronized (entries) {
+            if (version != cachedVersion) {
+                entries.clear();
+                cachedVersion = version;
+            }
+            future = entries.get(versionedKey);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                entries.put(versionedKey, future);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            try {
+                future.complete(build(renderer));
+            } catch (IOException | RuntimeException ex) {
+                synchronized (entries) {
+                    entries.remove(versionedKey);
+                }
+                future.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new UncheckedIOException(new IOException(cause));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static CachedBody build(BodyRenderer renderer) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(64 * 1024);
+        renderer.render(buf);
+        byte[] identity = buf.toByteArray();
+
+        ByteArrayOutputStream gz = new ByteArrayOutputStream(identity.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gz, 64 * 1024) {
+            { def.setLevel(Deflater.BEST_COMPRESSION); }
+        }) {
+            out.write(identity);
+        }
+        return new CachedBody(identity, gz.toByteArray(), digest(identity));
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,56 +1,270 @@
 package com.voicemap.backend.service;
 
+import com.mongodb.client.model.Filters;
+import com.voicemap.backend.dto.RegionChain;
+import com.voicemap.backend.dto.RegionSummary;
 import com.voicemap.backend.model.Region;
 import com.voicemap.backend.repository.RegionRepository;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.locationtech.jts.geom.Envelope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 @Service
 public class RegionService {
 
     private final RegionRepository regionRepository;
+    private final RegionReader regionReader;
     private final MongoTemplate mongoTemplate;
+    private final RegionSpatialIndex spatialIndex;
+    // last known value of the shared counter bumped on every region write; caches key derived data on it
+    private final AtomicLong datasetVersion = new AtomicLong(-1);
+    private final long versionRefreshMillis;
+    private volatile long versionCheckedAt;
+    private final int importBatchSize;
 
-    public RegionService(RegionRepository regionRepository, MongoTemplate mongoTemplate) {
+    static final String VERSION_COLLECTION = "dataset_versions";
+    private static final String VERSION_ID = "regions";
+
+    public RegionService(RegionRepository regionRepository, RegionReader regionReader, MongoTemplate mongoTemplate,
+                         RegionSpatialIndex spatialIndex,
+                         @Value("${voicemap.import.batch-size:1000}") int importBatchSize,
+                         @Value("${voicemap.dataset-version.refresh-ms:2000}") long versionRefreshMillis) {
         this.regionRepository = regionRepository;
+        this.regionReader = regionReader;
         this.mongoTemplate = mongoTemplate;
+        this.spatialIndex = spatialIndex;
+        this.importBatchSize = importBatchSize;
+        this.versionRefreshMillis = versionRefreshMillis;
     }
 
     public Region save(Region r) {
         if (r.getCreatedAt() == null) r.setCreatedAt(java.time.Instant.now());
-        return regionRepository.save(r);
+        r.setUpdatedAt(java.time.Instant.now());
+        Region saved = regionRepository.save(r);
+        datasetChanged();
+        return saved;
+    }
+
+    /**
+     * Batched writer for imports. A region updates the stored region with the same
+     * identity (see {@link #importKey}) or is inserted when it has none;
+     * only imported fields are set (see {@link #importUpdate}), so curated ones survive.
+     * Imported regions carry packedGeo, which only RegionCodec writes.
+     * Flushes only mark the spatial index stale; call {@link #importFinished()} once the
+     * import is done to rebuild it.
+     */
+    public BulkWriter<Region> bulkWriter() {
+        return new BulkWriter<>(mongoTemplate, Region.class, importBatchSize, RegionService::importKey,
+                RegionService::importUpdate, this::datasetWriting);
+    }
+
+    /**
+     * The stored region an imported one replaces, by the same fields as RegionFingerprint.key.
+     * A region without a stable identity gets a fresh _id, so the upsert inserts it; a plain
+     * insert would go through Spring's mapping and drop packedGeo.
+     */
+    static Query importKey(Region r) {
+        if (r.getCode() != null) {
+            return new Query(Criteria.where("type").is(r.getType()).and("code").is(r.getCode()));
+        }
+        if (r.getSourceId() != null) {
+            return new Query(Criteria.where("type").is(r.getType()).and("code").is(null)
+                    .and("source").is(r.getSource()).and("sourceId").is(r.getSourceId()));
+        }
+        if (RegionFingerprint.key(r) != null) {
+            return new Query(Criteria.where("type").is(r.getType()).and("code").is(null)
+                    .and("sourceId").is(null).and("state").is(r.getState()).and("name").is(r.getName()));
+        }
+        return new Query(Criteria.where("_id").is(new ObjectId()));
+    }
+
+    // the fields an import owns, see importUpdate
+    private static final List<String> IMPORTED_FIELDS = List.of("name", "code", "type", "state", "geo", "bbox",
+            "centroid", "source", "sourceId", "sourceYear", "fingerprint", "updatedAt");
+
+    /**
+     * The fields an import owns, as RegionCodec encodes them (BSON values pass through
+     * Spring's update mapping untouched); a missing one is set to null. parentId, district,
+     * verified and meta are curated by hand and left alone on existing regions; createdAt
+     * is only set when the region is new.
+     */
+    static Update importUpdate(Region r) {
+        BsonDocument doc = RegionCodec.toBsonDocument(r);
+        Update update = new Update();
+        for (String field : IMPORTED_FIELDS) update.set(field, doc.get(field, BsonNull.VALUE));
+        return update
+                .setOnInsert("verified", false)
+                .setOnInsert("createdAt", r.getCreatedAt());
+    }
+
+    /** Id, identity fields and fingerprint of every region of a type imported from a source (no geometry). */
+    public List<Region> findImportKeys(String source, String type) {
+        Query q = new Query(Criteria.where("source").is(source).and("type").is(type));
+        q.fields().include("type", "code", "state", "sourceId", "name", "fingerprint");
+        return mongoTemplate.find(q, Region.class, "regions");
+    }
+
+    /** Delete regions as part of an import; like bulk writes, this waits for {@link #importFinished()}. */
+    public void deleteByIds(Collection<String> ids) {
+        if (ids.isEmpty()) return;
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), Region.class);
+        datasetWriting();
+    }
+
+    /** An import has stopped writing (finished, failed or cancelled): rebuild the spatial index once. */
+    public void importFinished() {
+        datasetChanged();
+    }
+
+    /**
+     * Current version of the region dataset; changes whenever a region is written by any
+     * instance. Backed by a counter document in Mongo that is re-read at most once per
+     * refresh interval; a change made elsewhere also invalidates the spatial index.
+     */
+    public long getDatasetVersion() {
+        long now = System.currentTimeMillis();
+        if (now - versionCheckedAt >= versionRefreshMillis) {
+            versionCheckedAt = now;
+            try {
+                Document d = mongoTemplate.findById(VERSION_ID, Document.class, VERSION_COLLECTION);
+                long stored = d == null ? 0 : d.get("version", Number.class).longValue();
+                long previous = datasetVersion.getAndAccumulate(stored, Math::max);
+                if (previous >= 0 && stored > previous) spatialIndex.invalidate();
+            } catch (RuntimeException ex) {
+                System.out.println("Could not read region dataset version: " + ex.getMessage());
+            }
+        }
+        return datasetVersion.get();
+    }
+
+    private void datasetChanged() {
+        bumpDatasetVersion();
+        spatialIndex.invalidate();
+    }
+
+    // mid-import: stop serving the old index, but leave the rebuild for importFinished
+    private void datasetWriting() {
+        bumpDatasetVersion();
+        spatialIndex.markStale();
+    }
+
+    private void bumpDatasetVersion() {
+        try {
+            Document d = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(VERSION_ID)),
+                    new Update().inc("version", 1), FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, VERSION_COLLECTION);
+            datasetVersion.accumulateAndGet(d.get("version", Number.class).longValue(), Math::max);
+        } catch (RuntimeException ex) {
+            // this instance's caches must still move on; other instances pick up the next successful bump
+            datasetVersion.incrementAndGet();
+            System.out.println("Could not bump region dataset version: " + ex.getMessage());
+        }
     }
 
     public Optional<Region> findById(String id) {
         return regionRepository.findById(id);
     }
 
+    /** Regions of a type with packed geometry (read through RegionCodec). */
     public List<Region> findByType(String type) {
-        return regionRepository.findByType(type);
+        return regionReader.find(Filters.eq("type", type), true);
+    }
+
+    /** Cursor-backed stream of all regions of a type, with packed geometry; close it when done. */
+    public Stream<Region> streamByType(String type) {
+        return regionReader.stream(Filters.eq("type", type), true);
+    }
+
+    /**
+     * Regions of a type intersecting the viewport [minLon, minLat, maxLon, maxLat].
+     * Served from the spatial index when current (regions without geo; use
+     * {@link #packedGeometry}); otherwise Mongo filters on the stored bbox.
+     */
+    public List<Region> findIntersecting(double[] bbox, String type) {
+        if (spatialIndex.isReady()) {
+            return spatialIndex.findIntersecting(new Envelope(bbox[0], bbox[2], bbox[1], bbox[3]), type);
+        }
+        Criteria criteria = new Criteria().andOperator(
+                Criteria.where("type").is(type),
+                Criteria.where("bbox.0").lte(bbox[2]),
+                Criteria.where("bbox.1").lte(bbox[3]),
+                Criteria.where("bbox.2").gte(bbox[0]),
+                Criteria.where("bbox.3").gte(bbox[1]));
+        return mongoTemplate.find(new Query(criteria), Region.class, "regions");
+    }
+
+    /** Packed boundary of a region: as decoded by RegionCodec, packed from its geo, or the spatial index's copy. */
+    public PackedMultiPolygon packedGeometry(Region r) {
+        if (r.getPackedGeo() != null) return r.getPackedGeo();
+        if (r.getGeo() != null) return PackedMultiPolygon.of(r.getGeo());
+        PackedMultiPolygon indexed = spatialIndex.packedOf(r);
+        return indexed != null ? indexed : PackedMultiPolygon.of(null);
     }
 
     public List<Region> findByTypeAndState(String type, String state) {
         return regionRepository.findByTypeAndState(type, state);
     }
 
-    public List<Region> searchByName(String q) {
+    /** Summaries of regions whose name contains {@code q} (case-insensitive), reading only the requested fields. */
+    public List<RegionSummary> searchSummaries(String q, Set<String> fields) {
         String cleaned = q.replaceAll("[^A-Za-z0-9 ]", "");
         String regex = ".*" + cleaned + ".*";
-        return regionRepository.findByNameRegexIgnoreCase(regex);
+        return summarize(regionReader.find(Filters.regex("name", regex, "i"), RegionSummary.documentFields(fields)), fields);
+    }
+
+    /** Summaries of every region, reading only the requested fields. */
+    public List<RegionSummary> getAllSummaries(Set<String> fields) {
+        return summarize(regionReader.find(new Document(), RegionSummary.documentFields(fields)), fields);
+    }
+
+    /** Summaries of the regions containing a point, smallest first (see {@link #findContaining}). */
+    public List<RegionSummary> findContainingSummaries(double lat, double lon, String preferredType, Set<String> fields) {
+        List<String> projection = RegionSummary.documentFields(fields);
+        projection.add("bbox"); // needed for the area sort
+        return summarize(findContaining(lat, lon, preferredType, projection), fields);
+    }
+
+    private List<RegionSummary> summarize(List<Region> regions, Set<String> fields) {
+        boolean geometry = fields.contains(RegionSummary.GEOMETRY);
+        List<RegionSummary> out = new ArrayList<>(regions.size());
+        for (Region r : regions) out.add(RegionSummary.of(r, fields, geometry ? packedGeometry(r) : null));
+        return out;
     }
 
     /**
      * Find regions that contain the given lat/lng. Optionally filter by type.
      * Returns matches sorted by estimated area (smallest first).
+     * Served from the in-memory spatial index when it is current (regions without geo;
+     * use {@link #packedGeometry}), otherwise from Mongo.
      */
     public List<Region> findContaining(double lat, double lon, String preferredType) {
+        return findContaining(lat, lon, preferredType, null);
+    }
+
+    // fields limits what the Mongo fallback loads; null loads whole documents
+    private List<Region> findContaining(double lat, double lon, String preferredType, Collection<String> fields) {
+        if (spatialIndex.isReady()) {
+            return spatialIndex.findContaining(lat, lon, preferredType);
+        }
         GeoJsonPoint point = new GeoJsonPoint(lon, lat);
 
         Criteria criteria = Criteria.where("geo").intersects(point);
@@ -59,16 +273,45 @@ public class RegionService {
         }
 
         Query q = new Query(criteria);
+        if (fields != null) q.fields().include(fields.toArray(new String[0]));
         List<Region> matches = mongoTemplate.find(q, Region.class, "regions");
-        matches.sort(Comparator.comparingDouble(this::approxArea));
+        matches.sort(Comparator.comparingDouble(RegionService::approxArea));
         return matches;
     }
 
+    /**
+     * Resolve ward, ac, pc, district and state IDs for a point in one pass.
+     * Uses the spatial index's precomputed ancestry when it is current; otherwise one
+     * untyped Mongo query plus a bounded climb of parent links from the finest match.
+     */
+    public RegionChain resolveChain(double lat, double lon) {
+        if (spatialIndex.isReady()) {
+            return spatialIndex.resolveChain(lat, lon);
+        }
+        RegionChain chain = new RegionChain();
+        Region anchor = null;
+        for (Region r : findContaining(lat, lon, null, List.of("type", "parentId", "bbox"))) {
+            String type = r.getType() == null ? null : r.getType().toLowerCase();
+            int level = RegionChain.LEVELS.indexOf(type);
+            if (level < 0) continue;
+            if (chain.get(type) == null) chain.set(type, r.getId());
+            if (anchor == null || level < RegionChain.LEVELS.indexOf(anchor.getType().toLowerCase())) anchor = r;
+        }
+        // parent links take precedence over independent spatial matches
+        Region current = anchor;
+        for (int hops = 0; current != null && hops < RegionChain.LEVELS.size(); hops++) {
+            if (current.getType() != null) chain.set(current.getType(), current.getId());
+            if (current.getParentId() == null) break;
+            current = findById(current.getParentId()).orElse(null);
+        }
+        return chain;
+    }
+
     public Optional<Region> findOneByTypeAndName(String type, String name) {
         return regionRepository.findByTypeAndNameIgnoreCase(type, name);
     }
 
-    private double approxArea(Region r) {
+    static double approxArea(Region r) {
         if (r.getBbox() != null && r.getBbox().length == 4) {
             double w = r.getBbox()[2] - r.getBbox()[0];
             double h = r.getBbox()[3] - r.getBbox()[1];
@@ -77,8 +320,4 @@ public class RegionService {
         return Double.MAX_VALUE;
     }
 
-    public List<Region> getAllRegions() {
-        return regionRepository.findAll();
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Binary on-disk copy of the region dataset for fast warm starts.
+ *
+ * Layout: a header (magic, version, dataset stamp, metadata length), a metadata block
+ * with every region's scalar fields and ring structure, then all coordinates as one
+ * packed block of x/y doubles. {@link #open()} memory-maps the file: metadata is decoded
+ * onto the heap, while each region's geometry is a PackedMultiPolygon over a view of the
+ * mapping, so vertices stay off-heap in the page cache.
+ *
+ * The stamp identifies the dataset the file was written from (see {@link #stamp});
+ * callers compare it against Mongo before trusting a loaded snapshot.
+ */
+@Component
+public class RegionSnapshotStore {
+
+    private static final int MAGIC = 0x564D5253; // "VMRS"
+    private static final int VERSION = 3;
+
+    private final Path file;
+    private final boolean enabled;
+
+    public RegionSnapshotStore(@Value("${voicemap.snapshot.path:${java.io.tmpdir}/voicemap/regions.snapshot}") String file,
+                               @Value("${voicemap.snapshot.enabled:true}") boolean enabled) {
+        this.file = Paths.get(file);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hash of every region's id, fingerprint, createdAt and updatedAt, in id order. Every
+     * write bumps updatedAt, so edits that keep the fingerprint (a saved geometry or
+     * parentId) change the stamp too. Only those fields are read, so Mongo can compute
+     * the current stamp from a geometry-free projection.
+     */
+    public static String stamp(List<Region> regions) {
+        List<Region> sorted = new ArrayList<>(regions);
+        sorted.sort(Comparator.comparing(r -> r.getId() == null ? "" : r.getId()));
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        for (Region r : sorted) {
+            md.update(String.valueOf(r.getId()).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(String.valueOf(r.getFingerprint()).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(String.valueOf(r.getCreatedAt() == null ? 0 : r.getCreatedAt().toEpochMilli())
+                    .getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(String.valueOf(r.getUpdatedAt() == null ? 0 : r.getUpdatedAt().toEpochMilli())
+                    .getBytes(StandardCharsets.UTF_8));
+            md.update((byte) '\n');
+        }
+        return HexFormat.of().formatHex(md.digest(), 0, 16);
+    }
+
+    /**
+     * Write regions to the snapshot file, replacing it atomically. {@code geometries} is
+     * parallel to {@code regions}; region geo itself is not read.
+     */
+    public void write(List<Region> regions, List<PackedMultiPolygon> geometries, String stamp) throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path coords = Files.createTempFile(file.toAbsolutePath().getParent(), "coords", ".tmp");
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "snapshot", ".tmp");
+        try {
+            ByteArrayOutputStream metaBytes = new ByteArrayOutputStream();
+            DataOutputStream meta = new DataOutputStream(metaBytes);
+            meta.writeInt(regions.size());
+            try (DataOutputStream coordOut = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(coords), 1 << 16))) {
+                int points = 0;
+                for (int i = 0; i < regions.size(); i++) {
+                    writeMeta(meta, regions.get(i));
+                    PackedMultiPolygon g = geometries.get(i);
+                    // polygon -> first ring (region-relative), ring -> first point (file-absolute)
+                    meta.writeInt(g.getNumPolygons());
+                    for (int p = 0; p <= g.getNumPolygons(); p++) {
+                        meta.writeInt(p < g.getNumPolygons() ? g.getFirstRing(p) : g.getNumRings());
+                    }
+                    meta.writeInt(g.getNumRings());
+                    for (int k = 0; k < g.getNumRings(); k++) {
+                        meta.writeInt(points);
+                        for (int j = 0, n = g.getNumPoints(k); j < n; j++) {
+                            coordOut.writeDouble(g.getX(k, j));
+                            coordOut.writeDouble(g.getY(k, j));
+                        }
+                        points += g.getNumPoints(k);
+                    }
+                    meta.writeInt(points);
+                }
+            }
+            meta.flush();
+
+            try (OutputStream out = Files.newOutputStream(tmp);
+                 DataOutputStream header = new DataOutputStream(out)) {
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeUTF(stamp);
+                header.writeInt(metaBytes.size());
+                metaBytes.writeTo(header);
+                // coordinates start on an 8-byte boundary so the double view is aligned
+                int written = header.size();
+                header.write(new byte[(8 - written % 8) % 8]);
+                header.flush();
+                Files.copy(coords, out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(coords);
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeMeta(DataOutputStream out, Region r) throws IOException {
+        for (String s : new String[]{r.getId(), r.getName(), r.getCode(), r.getType(), r.getState(),
+                r.getDistrict(), r.getParentId(), r.getSource(), r.getFingerprint(), r.getSourceId()}) {
+            out.writeBoolean(s != null);
+            if (s != null) out.writeUTF(s);
+        }
+        out.writeLong(r.getCreatedAt() == null ? Long.MIN_VALUE : r.getCreatedAt().toEpochMilli());
+        out.writeLong(r.getUpdatedAt() == null ? Long.MIN_VALUE : r.getUpdatedAt().toEpochMilli());
+        out.writeInt(r.getSourceYear() == null ? Integer.MIN_VALUE : r.getSourceYear());
+        out.writeBoolean(r.isVerified());
+        writeDoubles(out, r.getBbox());
+        writeDoubles(out, r.getCentroid());
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        out.writeInt(values == null ? -1 : values.length);
+        if (values != null) for (double v : values) out.writeDouble(v);
+    }
+
+    /** Map the snapshot file; null when disabled, missing or unreadable. */
+    public MappedRegions open() {
+        if (!enabled || !Files.exists(file)) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) return null;
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (map.getInt() != MAGIC || map.getInt() != VERSION) return null;
+            byte[] stampBytes = new byte[map.getShort() & 0xFFFF];
+            map.get(stampBytes);
+            String stamp = new String(stampBytes, StandardCharsets.UTF_8);
+            byte[] metaBytes = new byte[map.getInt()];
+            map.get(metaBytes);
+            int coordStart = (map.position() + 7) & ~7;
+            DoubleBuffer coords = map.position(coordStart).slice().asDoubleBuffer();
+            return readMeta(new DataInputStream(new ByteArrayInputStream(metaBytes)), stamp, coords);
+        } catch (IOException | RuntimeException ex) {
+            System.out.println("Region snapshot unreadable, ignoring: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static MappedRegions readMeta(DataInputStream in, String stamp, DoubleBuffer coords) throws IOException {
+        int n = in.readInt();
+        List<Region> regions = new ArrayList<>(n);
+        List<PackedMultiPolygon> geometries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Region r = new Region();
+            String[] s = new String[10];
+            for (int k = 0; k < s.length; k++) s[k] = in.readBoolean() ? in.readUTF() : null;
+            r.setId(s[0]);
+            r.setName(s[1]);
+            r.setCode(s[2]);
+            r.setType(s[3]);
+            r.setState(s[4]);
+            r.setDistrict(s[5]);
+            r.setParentId(s[6]);
+            r.setSource(s[7]);
+            r.setFingerprint(s[8]);
+            r.setSourceId(s[9]);
+            long created = in.readLong();
+            if (created != Long.MIN_VALUE) r.setCreatedAt(java.time.Instant.ofEpochMilli(created));
+            long updated = in.readLong();
+            if (updated != Long.MIN_VALUE) r.setUpdatedAt(java.time.Instant.ofEpochMilli(updated));
+            int year = in.readInt();
+            if (year != Integer.MIN_VALUE) r.setSourceYear(year);
+            r.setVerified(in.readBoolean());
+            r.setBbox(readDoubles(in));
+            r.setCentroid(readDoubles(in));
+
+            int[] polygonStart = new int[in.readInt() + 1];
+            for (int p = 0; p < polygonStart.length; p++) polygonStart[p] = in.readInt();
+            int[] ringStart = new int[in.readInt() + 1];
+            for (int k = 0; k < ringStart.length; k++) ringStart[k] = in.readInt();
+            regions.add(r);
+            geometries.add(new PackedMultiPolygon(coords, ringStart, polygonStart));
+        }
+        return new MappedRegions(stamp, regions, geometries);
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        double[] out = new double[n];
+        for (int i = 0; i < n; i++) out[i] = in.readDouble();
+        return out;
+    }
+
+    /** A mapped snapshot: region metadata on the heap, coordinates in the mapping. */
+    public static final class MappedRegions {
+        private final String stamp;
+        private final List<Region> regions;
+        private final List<PackedMultiPolygon> geometries;
+
+        MappedRegions(String stamp, List<Region> regions, List<PackedMultiPolygon> geometries) {
+            this.stamp = stamp;
+            this.regions = regions;
+            this.geometries = geometries;
+        }
+
+        public String getStamp() {
+            return stamp;
+        }
+
+        /** Regions in file order; their geo is null, use {@link #geometry}. */
+        public List<Region> getRegions() {
+            return regions;
+        }
+
+        /** Geometry of region i, reading directly from the mapping. */
+        public PackedMultiPolygon geometry(int i) {
+            return geometries.get(i);
+        }
+    }
+}
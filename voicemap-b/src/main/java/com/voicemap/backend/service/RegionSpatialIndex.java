@@ -0,0 +1,375 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.dto.RegionChain;
+import com.voicemap.backend.model.Region;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory point-in-polygon index over all regions.
+ *
+ * An STRtree over region envelopes narrows a lookup down to a handful of candidates,
+ * which are then tested exactly by a PackedPolygonLocator over each packed boundary. The index is an
+ * immutable snapshot that is rebuilt in the background at startup and whenever the
+ * region dataset changes; callers check {@link #isReady()} and fall back to Mongo
+ * while no current snapshot is available.
+ *
+ * Currency is tracked with a generation counter: every write bumps it, and a snapshot
+ * only counts as current if no write arrived after its build started loading.
+ *
+ * Boundaries are held as PackedMultiPolygons (one double block per region) and the
+ * indexed regions themselves carry no geo; see {@link #packedOf}.
+ * Each Mongo build is also written to RegionSnapshotStore. At startup the index is
+ * built from that file instead when its stamp still matches Mongo, in which case the
+ * packed coordinates stay in the memory mapping.
+ */
+@Component
+public class RegionSpatialIndex {
+
+    private final RegionReader regionReader;
+    private final MongoTemplate mongoTemplate;
+    private final RegionSnapshotStore snapshotStore;
+    private final ApplicationEventPublisher events;
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "region-index-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean(false);
+
+    private volatile Snapshot snapshot;
+    // bumped by every write; builtGeneration is the generation the current snapshot was loaded at
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long builtGeneration = -1;
+
+    public RegionSpatialIndex(RegionReader regionReader, MongoTemplate mongoTemplate,
+                              RegionSnapshotStore snapshotStore, ApplicationEventPublisher events) {
+        this.regionReader = regionReader;
+        this.mongoTemplate = mongoTemplate;
+        this.snapshotStore = snapshotStore;
+        this.events = events;
+    }
+
+    /** Published after a new snapshot has been swapped in. */
+    public static class RegionIndexRebuiltEvent extends ApplicationEvent {
+        public RegionIndexRebuiltEvent(RegionSpatialIndex source) {
+            super(source);
+        }
+    }
+
+    /** A single indexed region: the entity (without geo), its packed boundary and its locator. */
+    static final class Entry {
+        final Region region;
+        final PackedMultiPolygon packed;
+        final PackedPolygonLocator locator;
+        final double area;
+
+        Entry(Region region, PackedMultiPolygon packed) {
+            this.region = region;
+            this.packed = packed;
+            this.locator = new PackedPolygonLocator(packed);
+            this.area = RegionService.approxArea(region);
+        }
+    }
+
+    private static final class Snapshot {
+        final STRtree tree;
+        final int size;
+        // region id -> ids of itself and its ancestors, indexed like RegionChain.LEVELS
+        final Map<String, String[]> ancestry;
+        final Map<String, Entry> byId;
+
+        Snapshot(STRtree tree, int size, Map<String, String[]> ancestry, Map<String, Entry> byId) {
+            this.tree = tree;
+            this.size = size;
+            this.ancestry = ancestry;
+            this.byId = byId;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!rebuildQueued.compareAndSet(false, true)) return;
+        rebuilder.submit(() -> {
+            rebuildQueued.set(false);
+            try {
+                if (!warmStart()) rebuild();
+            } catch (Exception ex) {
+                System.out.println("Region index build failed: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Build from the on-disk snapshot if it matches the dataset in Mongo. The check reads
+     * only ids, fingerprints and timestamps; if Mongo cannot be reached the snapshot is
+     * used anyway, since it is the best data available.
+     */
+    private boolean warmStart() {
+        RegionSnapshotStore.MappedRegions mapped = snapshotStore.open();
+        if (mapped == null) return false;
+        long gen = generation.get();
+        try {
+            if (!mapped.getStamp().equals(currentStamp())) {
+                System.out.println("Region snapshot out of date; rebuilding from Mongo");
+                return false;
+            }
+        } catch (Exception ex) {
+            System.out.println("Could not verify region snapshot, using it as is: " + ex.getMessage());
+        }
+
+        List<Region> regions = mapped.getRegions();
+        List<PackedMultiPolygon> geometries = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) geometries.add(mapped.geometry(i));
+        int n = install(regions, geometries, gen);
+        System.out.println("Region index loaded from snapshot: " + n + " regions");
+        events.publishEvent(new RegionIndexRebuiltEvent(this));
+        return true;
+    }
+
+    private String currentStamp() {
+        Query q = new Query();
+        q.fields().include("_id", "fingerprint", "createdAt", "updatedAt");
+        return RegionSnapshotStore.stamp(mongoTemplate.find(q, Region.class, "regions"));
+    }
+
+    /** True when a snapshot exists and no region has been written since its build started loading. */
+    public boolean isReady() {
+        return snapshot != null && builtGeneration == generation.get();
+    }
+
+    /** True once a snapshot has been built, even if writes have since made it stale. */
+    public boolean hasSnapshot() {
+        return snapshot != null;
+    }
+
+    public int size() {
+        Snapshot s = snapshot;
+        return s == null ? 0 : s.size;
+    }
+
+    /**
+     * Mark the current snapshot as out of date and queue a rebuild.
+     * Repeated calls while a rebuild is pending collapse into a single rebuild.
+     */
+    public void invalidate() {
+        markStale();
+        scheduleRebuild();
+    }
+
+    /**
+     * Mark the current snapshot as out of date without rebuilding, so lookups fall back
+     * to Mongo. Used while an import is still writing; call {@link #invalidate()} once
+     * it has finished.
+     */
+    public void markStale() {
+        generation.incrementAndGet();
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) return;
+        rebuilder.submit(() -> {
+            rebuildQueued.set(false);
+            try {
+                rebuild();
+            } catch (Exception ex) {
+                System.out.println("Region index rebuild failed: " + ex.getMessage());
+            }
+        });
+    }
+
+    /** Load every region from Mongo and swap in a fresh snapshot. */
+    public void rebuild() {
+        // writes that land during the load bump the generation past this one, leaving the new snapshot stale
+        long gen = generation.get();
+        List<Region> all = regionReader.find(new Document(), true);
+        List<PackedMultiPolygon> geometries = new ArrayList<>(all.size());
+        for (Region r : all) {
+            geometries.add(r.getPackedGeo() != null ? r.getPackedGeo() : PackedMultiPolygon.of(null));
+            r.setPackedGeo(null); // held by the index entry instead
+        }
+        int n = install(all, geometries, gen);
+        System.out.println("Region index built: " + n + " regions");
+        events.publishEvent(new RegionIndexRebuiltEvent(this));
+
+        try {
+            snapshotStore.write(all, geometries, RegionSnapshotStore.stamp(all));
+        } catch (Exception ex) {
+            System.out.println("Could not write region snapshot: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Build and swap in a snapshot loaded at generation {@code gen}; geometries is parallel
+     * to regions. Returns the indexed count.
+     */
+    private int install(List<Region> regions, List<PackedMultiPolygon> geometries, long gen) {
+        STRtree tree = new STRtree();
+        Map<String, Region> byId = new HashMap<>();
+        Map<String, Entry> entries = new HashMap<>();
+        int n = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            Region r = regions.get(i);
+            if (r.getId() != null) byId.put(r.getId(), r);
+            PackedMultiPolygon g = geometries.get(i);
+            if (g.isEmpty()) continue;
+            Entry e = new Entry(r, g);
+            tree.insert(e.locator.getEnvelope(), e);
+            if (r.getId() != null) entries.put(r.getId(), e);
+            n++;
+        }
+        tree.build();
+        snapshot = new Snapshot(tree, n, buildAncestry(byId), entries);
+        builtGeneration = gen;
+        return n;
+    }
+
+    /** Indexed JTS geometry of a region (a view of its packed boundary), or null if not indexed. */
+    public Geometry geometryOf(Region r) {
+        Entry e = entryOf(r);
+        return e == null ? null : e.packed.toJts();
+    }
+
+    /** Indexed packed boundary of a region, or null if not indexed. */
+    public PackedMultiPolygon packedOf(Region r) {
+        Entry e = entryOf(r);
+        return e == null ? null : e.packed;
+    }
+
+    private Entry entryOf(Region r) {
+        Snapshot s = snapshot;
+        if (s == null || r == null || r.getId() == null) return null;
+        return s.byId.get(r.getId());
+    }
+
+    /**
+     * Follow parentId links once for every region and record, per level, the id of the
+     * region itself or its nearest ancestor of that type. Cycles and dangling parents
+     * simply end the walk.
+     */
+    private static Map<String, String[]> buildAncestry(Map<String, Region> byId) {
+        Map<String, String[]> table = new HashMap<>(byId.size() * 2);
+        for (String id : byId.keySet()) {
+            ancestryOf(id, byId, table, new HashMap<>());
+        }
+        return table;
+    }
+
+    private static String[] ancestryOf(String id, Map<String, Region> byId,
+                                       Map<String, String[]> table, Map<String, Boolean> visiting) {
+        String[] known = table.get(id);
+        if (known != null) return known;
+        Region r = byId.get(id);
+        if (r == null || visiting.put(id, Boolean.TRUE) != null) return new String[RegionChain.LEVELS.size()];
+
+        String[] chain = r.getParentId() != null
+                ? ancestryOf(r.getParentId(), byId, table, visiting).clone()
+                : new String[RegionChain.LEVELS.size()];
+        int level = levelIndex(r.getType());
+        if (level >= 0) chain[level] = id;
+        table.put(id, chain);
+        return chain;
+    }
+
+    private static int levelIndex(String type) {
+        return type == null ? -1 : RegionChain.LEVELS.indexOf(type.toLowerCase());
+    }
+
+    /**
+     * Resolve every administrative level for (lat, lon) with a single tree query.
+     * The finest-level containing region anchors the chain through its precomputed ancestry;
+     * levels its parent links do not cover are filled from the other spatial hits.
+     */
+    public RegionChain resolveChain(double lat, double lon) {
+        RegionChain chain = new RegionChain();
+        Snapshot s = snapshot;
+        if (s == null) return chain;
+
+        List<Entry> hits = query(lat, lon, null);
+        Entry anchor = null;
+        for (Entry e : hits) {
+            int level = levelIndex(e.region.getType());
+            if (level >= 0 && (anchor == null || level < levelIndex(anchor.region.getType()))) anchor = e;
+        }
+        String[] ancestors = anchor == null ? null : s.ancestry.get(anchor.region.getId());
+        if (ancestors != null) {
+            for (int i = 0; i < ancestors.length; i++) {
+                if (ancestors[i] != null) chain.set(RegionChain.LEVELS.get(i), ancestors[i]);
+            }
+        }
+        // hits are smallest first, so the first hit of each type wins
+        for (Entry e : hits) {
+            String type = e.region.getType();
+            if (levelIndex(type) >= 0 && chain.get(type) == null) chain.set(type, e.region.getId());
+        }
+        return chain;
+    }
+
+    /**
+     * Regions containing (lat, lon), optionally restricted to a type, smallest first.
+     * Returns an empty list when the index has not been built yet.
+     */
+    public List<Region> findContaining(double lat, double lon, String type) {
+        List<Entry> hits = query(lat, lon, type);
+        List<Region> out = new ArrayList<>(hits.size());
+        for (Entry e : hits) out.add(e.region);
+        return out;
+    }
+
+    /**
+     * Regions whose geometry intersects the rectangle {@code env}, optionally restricted
+     * to a type. The tree narrows candidates by envelope; each is then tested exactly.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Region> findIntersecting(Envelope env, String type) {
+        Snapshot s = snapshot;
+        if (s == null) return List.of();
+        List<Entry> candidates = s.tree.query(env);
+        List<Region> out = new ArrayList<>(candidates.size());
+        for (Entry e : candidates) {
+            if (type != null && !type.isBlank() && !type.equals(e.region.getType())) continue;
+            if (e.locator.intersects(env)) out.add(e.region);
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Entry> query(double lat, double lon, String type) {
+        Snapshot s = snapshot;
+        if (s == null) return List.of();
+        List<Entry> candidates = s.tree.query(new Envelope(lon, lon, lat, lat));
+        List<Entry> hits = new ArrayList<>(candidates.size());
+        for (Entry e : candidates) {
+            if (type != null && !type.isBlank() && !type.equals(e.region.getType())) continue;
+            if (e.locator.covers(lon, lat)) hits.add(e);
+        }
+        hits.sort(Comparator.comparingDouble(e -> e.area));
+        return hits;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
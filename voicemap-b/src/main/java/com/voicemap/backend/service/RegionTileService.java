@@ -0,0 +1,295 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.operation.overlayng.OverlayNG;
+import org.locationtech.jts.operation.overlayng.OverlayNGRobust;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Renders region boundaries as Mapbox Vector Tiles and keeps them in a disk-backed LRU.
+ *
+ * A tile is built from the regions whose envelope touches it: each geometry is taken
+ * from SimplifiedGeometryCache at a tolerance matching the zoom, clipped to the tile
+ * plus a small buffer, and encoded by MvtEncoder. Files live under
+ * {cache-dir}/{dataset version}/{type}/{z}/{x}/{y}.mvt, so a dataset change simply
+ * moves lookups to a fresh directory; older versions are deleted in the background.
+ * Low zooms are pre-rendered whenever the spatial index is rebuilt.
+ */
+@Service
+public class RegionTileService {
+
+    public static final int MAX_ZOOM = 22;
+    // clip buffer around each tile, as a fraction of the tile size (64 of 4096 units)
+    private static final double BUFFER = 64.0 / MvtEncoder.EXTENT;
+
+    private final RegionService regionService;
+    private final RegionSpatialIndex spatialIndex;
+    private final SimplifiedGeometryCache geometryCache;
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final List<String> seedTypes;
+    private final int seedMaxZoom;
+
+    private final GeometryFactory gf = new GeometryFactory();
+    private final Map<Path, Long> lru = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes = 0;
+    private long lastSeenVersion = -1;
+
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "region-tile-seed");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public RegionTileService(RegionService regionService,
+                             RegionSpatialIndex spatialIndex,
+                             SimplifiedGeometryCache geometryCache,
+                             @Value("${voicemap.tiles.cache-dir:${java.io.tmpdir}/voicemap-tiles}") String cacheDir,
+                             @Value("${voicemap.tiles.cache-max-mb:512}") long cacheMaxMb,
+                             @Value("${voicemap.tiles.seed-types:state,district,pc}") List<String> seedTypes,
+                             @Value("${voicemap.tiles.seed-max-zoom:5}") int seedMaxZoom) {
+        this.regionService = regionService;
+        this.spatialIndex = spatialIndex;
+        this.geometryCache = geometryCache;
+        this.cacheDir = Paths.get(cacheDir);
+        this.maxBytes = cacheMaxMb * 1024 * 1024;
+        this.seedTypes = seedTypes;
+        this.seedMaxZoom = seedMaxZoom;
+    }
+
+    /**
+     * Tiles left by an earlier run are not in the LRU's byte count, so drop them. Only the
+     * version directories this service creates are touched, never the rest of cache-dir.
+     */
+    @PostConstruct
+    public void clearStaleTiles() {
+        try (Stream<Path> dirs = Files.list(cacheDir)) {
+            dirs.filter(RegionTileService::isVersionDir).forEach(RegionTileService::deleteTree);
+        } catch (NoSuchFileException ignored) {
+            // nothing cached yet
+        } catch (IOException ex) {
+            System.out.println("Could not clear tile cache " + cacheDir + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Encoded tile for (type, z, x, y); an empty array when no region touches it.
+     * Throws IllegalArgumentException for out-of-range coordinates or unsafe type names.
+     */
+    public byte[] getTile(String type, int z, int x, int y) throws IOException {
+        if (type == null || !type.matches("[A-Za-z0-9_-]+")) throw new IllegalArgumentException("Invalid type");
+        if (z < 0 || z > MAX_ZOOM) throw new IllegalArgumentException("Zoom out of range: " + z);
+        int n = 1 << z;
+        if (x < 0 || x >= n || y < 0 || y >= n) throw new IllegalArgumentException("Tile out of range");
+
+        long version = regionService.getDatasetVersion();
+        Path versionDir = cacheDir.resolve(Long.toString(version));
+        Path file = versionDir.resolve(type).resolve(Integer.toString(z))
+                .resolve(Integer.toString(x)).resolve(y + ".mvt");
+
+        boolean known;
+        synchronized (lru) {
+            if (version != lastSeenVersion) {
+                dropOtherVersions(versionDir);
+                lastSeenVersion = version;
+            }
+            known = lru.get(file) != null;
+        }
+        if (known) {
+            try {
+                return Files.readAllBytes(file);
+            } catch (NoSuchFileException ex) {
+                // evicted between lookup and read; render again
+            }
+        }
+
+        byte[] tile = render(type, z, x, y);
+        store(file, tile);
+        return tile;
+    }
+
+    byte[] render(String type, int z, int x, int y) {
+        Envelope tileEnv = tileEnvelope(z, x, y);
+        Envelope clipEnv = new Envelope(tileEnv);
+        clipEnv.expandBy(tileEnv.getWidth() * BUFFER, tileEnv.getHeight() * BUFFER);
+        Geometry clip = gf.toGeometry(clipEnv);
+        Double tolerance = toleranceFor(z);
+
+        MvtEncoder encoder = new MvtEncoder(type, z, x, y);
+        double[] bbox = {clipEnv.getMinX(), clipEnv.getMinY(), clipEnv.getMaxX(), clipEnv.getMaxY()};
+        for (Region r : regionService.findIntersecting(bbox, type)) {
+            Geometry g = geometryCache.get(r, tolerance);
+            if (g == null || g.isEmpty() || !clipEnv.intersects(g.getEnvelopeInternal())) continue;
+            Geometry clipped;
+            try {
+                clipped = clipEnv.contains(g.getEnvelopeInternal())
+                        ? g
+                        : OverlayNGRobust.overlay(g, clip, OverlayNG.INTERSECTION);
+            } catch (RuntimeException ex) {
+                // a geometry that cannot be clipped is left out of this tile only
+                continue;
+            }
+            if (clipped.isEmpty()) continue;
+
+            Map<String, String> props = new LinkedHashMap<>();
+            props.put("name", r.getName());
+            props.put("code", r.getCode());
+            props.put("id", r.getId());
+            encoder.addFeature(clipped, props);
+        }
+        return encoder.isEmpty() ? new byte[0] : encoder.encode();
+    }
+
+    /** Roughly two tile units at this zoom, in degrees; null (unsimplified) once finer than the cache ladder. */
+    private static Double toleranceFor(int z) {
+        double tol = 360.0 / ((double) (1 << z) * MvtEncoder.EXTENT) * 2;
+        return tol < SimplifiedGeometryCache.LEVELS[0] / 2 ? null : tol;
+    }
+
+    static Envelope tileEnvelope(int z, int x, int y) {
+        double n = 1 << z;
+        double minLon = x / n * 360.0 - 180.0;
+        double maxLon = (x + 1) / n * 360.0 - 180.0;
+        double maxLat = Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y / n))));
+        double minLat = Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * (y + 1) / n))));
+        return new Envelope(minLon, maxLon, minLat, maxLat);
+    }
+
+    // ---- disk LRU ----
+
+    private void store(Path file, byte[] tile) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "tile", ".tmp");
+        Files.write(tmp, tile);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> evicted = new ArrayList<>();
+        synchronized (lru) {
+            Long previous = lru.put(file, (long) tile.length);
+            totalBytes += tile.length - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<Path, Long>> it = lru.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<Path, Long> eldest = it.next();
+                if (eldest.getKey().equals(file)) continue;
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (Path p : evicted) Files.deleteIfExists(p);
+    }
+
+    // caller holds the lru lock
+    private void dropOtherVersions(Path keep) {
+        Iterator<Map.Entry<Path, Long>> it = lru.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Long> e = it.next();
+            if (!e.getKey().startsWith(keep)) {
+                totalBytes -= e.getValue();
+                it.remove();
+            }
+        }
+        long keepVersion = Long.parseLong(keep.getFileName().toString());
+        background.submit(() -> {
+            try (Stream<Path> dirs = Files.list(cacheDir)) {
+                dirs.filter(d -> isOlderVersion(d, keepVersion)).forEach(RegionTileService::deleteTree);
+            } catch (IOException ignored) {
+                // cache dir not created yet
+            }
+        });
+    }
+
+    private static boolean isOlderVersion(Path dir, long version) {
+        return isVersionDir(dir) && Long.parseLong(dir.getFileName().toString()) < version;
+    }
+
+    private static boolean isVersionDir(Path dir) {
+        return Files.isDirectory(dir) && dir.getFileName().toString().matches("\\d+");
+    }
+
+    private static void deleteTree(Path root) {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            });
+        } catch (IOException ex) {
+            System.out.println("Could not clear tile cache " + root + ": " + ex.getMessage());
+        }
+    }
+
+    // ---- seeding ----
+
+    @EventListener(RegionSpatialIndex.RegionIndexRebuiltEvent.class)
+    public void onIndexRebuilt() {
+        background.submit(this::seed);
+    }
+
+    /** Pre-render every tile up to seedMaxZoom that overlaps a region of a seeded type. */
+    void seed() {
+        int rendered = 0;
+        for (String type : seedTypes) {
+            Envelope extent = new Envelope();
+            for (Region r : spatialIndex.findIntersecting(new Envelope(-180, 180, -90, 90), type)) {
+                double[] b = r.getBbox();
+                if (b != null && b.length == 4) extent.expandToInclude(new Envelope(b[0], b[2], b[1], b[3]));
+            }
+            if (extent.isNull()) continue;
+            for (int z = 0; z <= seedMaxZoom; z++) {
+                int[] min = tileFor(extent.getMinX(), extent.getMaxY(), z);
+                int[] max = tileFor(extent.getMaxX(), extent.getMinY(), z);
+                for (int x = min[0]; x <= max[0]; x++) {
+                    for (int y = min[1]; y <= max[1]; y++) {
+                        try {
+                            getTile(type, z, x, y);
+                            rendered++;
+                        } catch (Exception ex) {
+                            System.out.println("Tile seed failed " + type + "/" + z + "/" + x + "/" + y + ": " + ex.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Region tiles seeded: " + rendered);
+    }
+
+    private static int[] tileFor(double lon, double lat, int z) {
+        int n = 1 << z;
+        double latRad = Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, lat)));
+        int x = (int) Math.floor((lon + 180.0) / 360.0 * n);
+        int y = (int) Math.floor((1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * n);
+        return new int[]{Math.max(0, Math.min(n - 1, x)), Math.max(0, Math.min(n - 1, y))};
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        background.shutdownNow();
+    }
+}
@@ -0,0 +1,111 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of pre-simplified region geometries.
+ *
+ * Requested tolerances snap to a fixed ladder of levels, so each region is simplified
+ * at most once per level and dataset version; entries are keyed by
+ * (region id, level, dataset version) and dropped when the dataset version moves on.
+ * The version is shared through Mongo, so imports on other instances invalidate it too.
+ */
+@Component
+public class SimplifiedGeometryCache {
+
+    /** Douglas-Peucker tolerances in degrees, finest first. */
+    public static final double[] LEVELS = {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1};
+
+    private final RegionService regionService;
+    private final RegionSpatialIndex spatialIndex;
+    private final Map<String, Geometry> cache;
+    private long cachedVersion = -1;
+
+    public SimplifiedGeometryCache(RegionService regionService, RegionSpatialIndex spatialIndex,
+                                   @Value("${voicemap.geometry-cache.max-entries:20000}") int maxEntries) {
+        this.regionService = regionService;
+        this.spatialIndex = spatialIndex;
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Geometry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Snap a requested tolerance to the nearest ladder level (on a log scale).
+     * Returns 0 when no simplification was requested.
+     */
+    public static double snap(Double tolerance) {
+        if (tolerance == null || !(tolerance > 0)) return 0;
+        double best = LEVELS[0];
+        double bestDist = Double.MAX_VALUE;
+        double logTol = Math.log(tolerance);
+        for (double level : LEVELS) {
+            double d = Math.abs(Math.log(level) - logTol);
+            if (d < bestDist) {
+                bestDist = d;
+                best = level;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Region geometry simplified to the level nearest {@code tolerance}; unsimplified when
+     * tolerance is null or not positive. Returns null for regions without geometry.
+     * Codec-read regions use their packed geometry; index regions (no geo) the index's copy.
+     */
+    public Geometry get(Region r, Double tolerance) {
+        double level = snap(tolerance);
+        if (level == 0 || r == null || r.getId() == null) {
+            Geometry source = source(r);
+            return source == null || level == 0 ? source : simplify(source, level);
+        }
+
+        long version = regionService.getDatasetVersion();
+        String key = r.getId() + "|" + level + "|" + version;
+        synchronized (cache) {
+            if (version != cachedVersion) {
+                cache.clear();
+                cachedVersion = version;
+            }
+            Geometry hit = cache.get(key);
+            if (hit != null) return hit;
+        }
+        // only a miss pays for the JTS conversion
+        Geometry source = source(r);
+        if (source == null) return null;
+        Geometry simplified = simplify(source, level);
+        synchronized (cache) {
+            if (version == cachedVersion) cache.put(key, simplified);
+        }
+        return simplified;
+    }
+
+    private Geometry source(Region r) {
+        if (r == null) return null;
+        if (r.getPackedGeo() != null) return r.getPackedGeo().toJts();
+        if (r.getGeo() != null) return GeoJsonConverter.toJts(r.getGeo());
+        return spatialIndex.geometryOf(r);
+    }
+
+    private static Geometry simplify(Geometry g, double level) {
+        Geometry simplified = DouglasPeuckerSimplifier.simplify(g, level);
+        return (simplified == null || simplified.isEmpty()) ? g : simplified;
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
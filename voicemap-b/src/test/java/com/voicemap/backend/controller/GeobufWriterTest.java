@@ -0,0 +1,89 @@
+package com.voicemap.backend.controller;
+
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.PackedMultiPolygon;
+import com.voicemap.backend.service.ProtoReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeobufWriterTest {
+
+	private static Region region(String id, String name) {
+		Region r = new Region();
+		r.setId(id);
+		r.setName(name);
+		return r;
+	}
+
+	private static PackedMultiPolygon triangle(double x, double y) {
+		PackedMultiPolygon.Builder b = new PackedMultiPolygon.Builder();
+		b.startPolygon();
+		b.startRing();
+		b.addPoint(x, y);
+		b.addPoint(x + 0.5, y);
+		b.addPoint(x, y + 0.25);
+		b.addPoint(x, y);
+		b.endRing();
+		b.endPolygon();
+		return b.build();
+	}
+
+	private static Map<Integer, List<Object>> write(List<Region> regions, Map<String, Object> geometries) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new GeobufWriter(GeobufWriter.DEFAULT_PRECISION).write(out, regions.iterator(), r -> geometries.get(r.getId()));
+		return ProtoReader.fields(out.toByteArray());
+	}
+
+	@Test
+	void writesKeysPrecisionAndDeltaEncodedRings() throws Exception {
+		Map<Integer, List<Object>> data = write(List.of(region("a", "Alpha")), Map.of("a", triangle(77, 12)));
+
+		assertEquals(List.of("name", "state", "code", "type", "id"), data.get(1).stream().map(ProtoReader::string).toList());
+		assertEquals(List.of(6L), data.get(3));
+
+		Map<Integer, List<Object>> collection = ProtoReader.fields((byte[]) data.get(4).get(0));
+		Map<Integer, List<Object>> feature = ProtoReader.fields((byte[]) collection.get(1).get(0));
+		assertEquals("a", ProtoReader.string(feature.get(11).get(0)));
+		Map<Integer, List<Object>> geometry = ProtoReader.fields((byte[]) feature.get(1).get(0));
+		assertEquals(List.of(5L), geometry.get(1));
+		// one polygon of one ring with three points (closing point dropped)
+		assertEquals(List.of(1L, 1L, 3L), ProtoReader.packed((byte[]) geometry.get(2).get(0)));
+		List<Long> coords = ProtoReader.packed((byte[]) geometry.get(3).get(0)).stream().map(ProtoReader::unzigzag).toList();
+		assertEquals(List.of(77_000_000L, 12_000_000L, 500_000L, 0L, -500_000L, 250_000L), coords);
+	}
+
+	@Test
+	void headerIndexHoldsBoxesAndFeatureOffsets() throws Exception {
+		List<Region> regions = List.of(region("a", "Alpha"), region("b", null), region("c", "Gamma"));
+		Map<String, Object> geometries = new HashMap<>();
+		geometries.put("a", triangle(77, 12));
+		geometries.put("c", triangle(-10.5, -20));
+		Map<Integer, List<Object>> data = write(regions, geometries);
+
+		Map<Integer, List<Object>> index = ProtoReader.fields((byte[]) data.get(GeobufWriter.FIELD_INDEX).get(0));
+		List<Long> boxes = ProtoReader.packed((byte[]) index.get(1).get(0)).stream().map(ProtoReader::unzigzag).toList();
+		assertEquals(List.of(77_000_000L, 12_000_000L, 77_500_000L, 12_250_000L,
+				0L, 0L, 0L, 0L,
+				-10_500_000L, -20_000_000L, -10_000_000L, -19_750_000L), boxes);
+
+		// offsets slice the feature_collection payload into exactly the encoded features
+		byte[] collection = (byte[]) data.get(4).get(0);
+		List<Long> offsets = ProtoReader.packed((byte[]) index.get(2).get(0));
+		assertEquals(4, offsets.size());
+		assertEquals(0L, offsets.get(0));
+		assertEquals(collection.length, offsets.get(3).intValue());
+		List<Object> features = ProtoReader.fields(collection).get(1);
+		for (int i = 0; i < 3; i++) {
+			byte[] slice = Arrays.copyOfRange(collection, offsets.get(i).intValue(), offsets.get(i + 1).intValue());
+			assertEquals(Arrays.toString((byte[]) features.get(i)),
+					Arrays.toString((byte[]) ProtoReader.fields(slice).get(1).get(0)));
+		}
+	}
+}
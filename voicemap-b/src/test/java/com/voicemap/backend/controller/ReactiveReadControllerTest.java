@@ -0,0 +1,73 @@
+package com.voicemap.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voicemap.backend.config.StartupPincodeImporter;
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.GrievanceIngestService;
+import com.voicemap.backend.service.PackedMultiPolygon;
+import com.voicemap.backend.service.ReactiveReadService;
+import com.voicemap.backend.service.SimplifiedGeometryCache;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.nio.DoubleBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveReadControllerTest {
+
+	private final ReactiveReadService reads = mock(ReactiveReadService.class);
+	private final ReactiveReadController controller = new ReactiveReadController(reads,
+			mock(GrievanceIngestService.class), mock(StartupPincodeImporter.class), mock(SimplifiedGeometryCache.class));
+
+	private static Region region(String id) {
+		Region r = new Region();
+		r.setId(id);
+		r.setName("Region " + id);
+		r.setType("pc");
+		r.setPackedGeo(new PackedMultiPolygon(DoubleBuffer.wrap(new double[]{0, 0, 1, 0, 1, 1, 0, 0}),
+				new int[]{0, 4}, new int[]{0, 1}));
+		return r;
+	}
+
+	@Test
+	void geoJsonStreamsOneValidFeatureCollection() throws Exception {
+		when(reads.findRegionsWithGeometry(eq("pc"), isNull())).thenReturn(Flux.just(region("a"), region("b")));
+		String body = String.join("", controller.regionsGeoJson("pc", null, null).collectList().block());
+
+		JsonNode fc = new ObjectMapper().readTree(body);
+		assertEquals("FeatureCollection", fc.get("type").asText());
+		assertEquals(2, fc.get("features").size());
+		assertEquals("b", fc.get("features").get(1).get("properties").get("id").asText());
+		assertEquals(4, fc.get("features").get(0).get("geometry").get("coordinates").get(0).get(0).size());
+	}
+
+	@Test
+	void emptyCollectionIsStillValidJson() throws Exception {
+		when(reads.findRegionsWithGeometry(eq("pc"), any())).thenReturn(Flux.empty());
+		String body = String.join("", controller.regionsGeoJson("pc", null, "70,10,80,20").collectList().block());
+		assertEquals(0, new ObjectMapper().readTree(body).get("features").size());
+	}
+
+	@Test
+	void listLimitsAreClamped() {
+		when(reads.findGrievances(any(), any(), anyInt())).thenReturn(Flux.empty());
+		when(reads.searchPincodePrefix(anyString(), anyInt())).thenReturn(Flux.empty());
+
+		controller.grievances(null, null, 0);
+		verify(reads).findGrievances(null, null, 1);
+		controller.grievances(null, null, 1_000_000);
+		verify(reads).findGrievances(null, null, GrievanceController.MAX_PAGE_SIZE);
+		controller.searchPincodes("40", -5);
+		verify(reads).searchPincodePrefix("40", 1);
+	}
+}
@@ -0,0 +1,99 @@
+package com.voicemap.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voicemap.backend.model.Region;
+import com.voicemap.backend.service.PackedMultiPolygon;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopoJsonWriterTest {
+
+	private static Region region(String id) {
+		Region r = new Region();
+		r.setId(id);
+		r.setName(id);
+		return r;
+	}
+
+	private static PackedMultiPolygon square(double x, double y) {
+		PackedMultiPolygon.Builder b = new PackedMultiPolygon.Builder();
+		b.startPolygon();
+		b.startRing();
+		b.addPoint(x, y);
+		b.addPoint(x + 1, y);
+		b.addPoint(x + 1, y + 1);
+		b.addPoint(x, y + 1);
+		b.endRing();
+		b.endPolygon();
+		return b.build();
+	}
+
+	private static JsonNode write(Map<String, PackedMultiPolygon> geometries) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<Region> regions = geometries.keySet().stream().map(TopoJsonWriterTest::region).toList();
+		new TopoJsonWriter("pc", TopoJsonWriter.DEFAULT_QUANTIZATION, 0)
+				.write(regions.iterator(), r -> geometries.get(r.getId()), out);
+		return new ObjectMapper().readTree(out.toByteArray());
+	}
+
+	@Test
+	void neighboursShareTheirCommonEdgeAsOneArc() throws Exception {
+		Map<String, PackedMultiPolygon> geometries = new LinkedHashMap<>();
+		geometries.put("a", square(0, 0));
+		geometries.put("b", square(1, 0));
+		JsonNode topo = write(geometries);
+
+		assertEquals("Topology", topo.get("type").asText());
+		JsonNode objects = topo.get("objects").get("pc").get("geometries");
+		assertEquals(2, objects.size());
+		// a: shared edge + its outer edges; b: its outer edges + the shared edge reversed
+		assertEquals(3, topo.get("arcs").size());
+		JsonNode ringA = objects.get(0).get("arcs").get(0).get(0);
+		JsonNode ringB = objects.get(1).get("arcs").get(0).get(0);
+		assertEquals(0, ringA.get(0).asInt());
+		boolean reversedShared = false;
+		for (JsonNode ref : ringB) reversedShared |= ref.asInt() == ~0;
+		assertTrue(reversedShared, ringB.toString());
+	}
+
+	@Test
+	void arcsAreDeltaEncodedOnTheQuantizedGrid() throws Exception {
+		JsonNode topo = write(Map.of("a", square(10, 20)));
+		JsonNode transform = topo.get("transform");
+		assertEquals(10, transform.get("translate").get(0).asDouble(), 1e-9);
+		assertEquals(1.0 / (TopoJsonWriter.DEFAULT_QUANTIZATION - 1), transform.get("scale").get(0).asDouble(), 1e-12);
+
+		// a lone ring is one closed arc starting at the grid origin; its deltas return there
+		JsonNode arc = topo.get("arcs").get(0);
+		assertEquals(5, arc.size());
+		assertEquals("[0,0]", arc.get(0).toString());
+		long x = 0, y = 0;
+		for (JsonNode delta : arc) {
+			x += delta.get(0).asLong();
+			y += delta.get(1).asLong();
+			assertTrue(x >= 0 && x < TopoJsonWriter.DEFAULT_QUANTIZATION && y >= 0 && y < TopoJsonWriter.DEFAULT_QUANTIZATION);
+		}
+		assertEquals(0, x);
+		assertEquals(0, y);
+	}
+
+	@Test
+	void simplifyKeepsArcEndpoints() {
+		long[] arc = {pack(0, 0), pack(1, 0), pack(2, 1), pack(3, 0), pack(10, 0)};
+		long[] simplified = TopoJsonWriter.simplify(arc, 2);
+		assertArrayEquals(new long[]{pack(0, 0), pack(10, 0)}, simplified);
+	}
+
+	private static long pack(long x, long y) {
+		return (x << 32) | (y & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,121 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.voicemap.backend.model.Region;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkWriterTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations ops = mock(BulkOperations.class);
+
+	private static Region region(String code) {
+		Region r = new Region();
+		r.setType("pc");
+		r.setCode(code);
+		r.setName("Region " + code);
+		return r;
+	}
+
+	private BulkWriter<Region> writer(int batchSize, Runnable afterFlush) {
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Region.class)).thenReturn(ops);
+		return new BulkWriter<>(mongoTemplate, Region.class, batchSize,
+				r -> r.getCode() == null ? null : new Query(Criteria.where("code").is(r.getCode())),
+				RegionService::importUpdate, afterFlush);
+	}
+
+	@Test
+	void keyedDocumentsAreUpsertedWithSetAndOthersInserted() {
+		BulkWriter<Region> writer = writer(10, null);
+		Region keyed = region("7");
+		Region unkeyed = region(null);
+		writer.add(keyed, "keyed");
+		writer.add(unkeyed, "unkeyed");
+		writer.flush();
+
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(ops).upsert(any(Query.class), update.capture());
+		verify(ops).insert(unkeyed);
+		Document doc = update.getValue().getUpdateObject();
+		Document set = doc.get("$set", Document.class);
+		assertEquals(new BsonString("7"), set.get("code"));
+		// curated fields are never overwritten, createdAt only on insert
+		assertFalse(set.containsKey("parentId"));
+		assertFalse(set.containsKey("verified"));
+		assertFalse(set.containsKey("meta"));
+		assertFalse(set.containsKey("district"));
+		assertTrue(doc.get("$setOnInsert", Document.class).containsKey("createdAt"));
+		assertEquals(2, writer.getWritten());
+	}
+
+	@Test
+	void flushesWhenTheBatchIsFullAndRunsTheCallback() {
+		int[] flushes = {0};
+		BulkWriter<Region> writer = writer(2, () -> flushes[0]++);
+		writer.add(region("1"), "1");
+		assertEquals(1, writer.getPending());
+		writer.add(region("2"), "2");
+		assertEquals(0, writer.getPending());
+		verify(ops, times(1)).execute();
+		assertEquals(1, flushes[0]);
+
+		writer.flush(); // nothing buffered
+		verify(ops, times(1)).execute();
+	}
+
+	@Test
+	void failuresAreReportedUnderTheLabelOfTheFailingDocument() {
+		BulkWriter<Region> writer = writer(10, null);
+		MongoBulkWriteException source = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+				List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)), null,
+				new ServerAddress(), Set.of());
+		when(ops.execute()).thenThrow(new BulkOperationException("bulk failed", source));
+
+		writer.add(region("1"), "feature 0");
+		writer.add(region("2"), "feature 1");
+		writer.add(region("3"), "feature 2");
+		writer.flush();
+
+		assertEquals(2, writer.getWritten());
+		assertEquals(List.of("feature 1: duplicate key"), writer.getFailures());
+		assertEquals(0, writer.getPending());
+	}
+
+	@Test
+	void insertOnlyWriterNeverUpserts() {
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Region.class)).thenReturn(ops);
+		BulkWriter<Region> writer = new BulkWriter<>(mongoTemplate, Region.class, 10);
+		writer.add(region("1"), "1");
+		writer.flush();
+		verify(ops).insert(any(Region.class));
+		verify(ops, never()).upsert(any(Query.class), any(Update.class));
+		verify(mongoTemplate).bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Region.class));
+	}
+}
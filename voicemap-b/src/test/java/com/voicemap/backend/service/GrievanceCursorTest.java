@@ -0,0 +1,89 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Grievance;
+import com.voicemap.backend.repository.GrievanceRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GrievanceCursorTest {
+
+	private static Grievance grievance(long millis) {
+		Grievance g = new Grievance();
+		g.setId(new ObjectId().toHexString());
+		g.setCreatedAt(Instant.ofEpochMilli(millis));
+		return g;
+	}
+
+	@Test
+	void tokenRoundTripsAndIsUrlSafe() {
+		Grievance g = grievance(1_700_000_000_123L);
+		GrievanceCursor cursor = GrievanceCursor.of(g);
+		String token = cursor.encode();
+		assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+		assertEquals(cursor, GrievanceCursor.decode(token));
+		assertEquals(g.getId(), GrievanceCursor.decode(token).id().toHexString());
+	}
+
+	@Test
+	void malformedTokensAreRejected() {
+		for (String token : new String[]{"", "not base64!", "MTIz", "YWJjOjEyMw"}) {
+			assertThrows(IllegalArgumentException.class, () -> GrievanceCursor.decode(token), token);
+		}
+	}
+
+	@Test
+	void pageContinuesAfterTheCursorWithoutSkipOrCount() {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		GrievanceService service = new GrievanceService(mock(GrievanceRepository.class), mock(RegionService.class),
+				mongoTemplate, mock(GrievanceRollupService.class));
+		List<Grievance> rows = new ArrayList<>();
+		for (int i = 0; i < 3; i++) rows.add(grievance(3000 - i));
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class))).thenReturn(rows);
+
+		GrievanceCursor after = GrievanceCursor.of(grievance(3001));
+		Slice<Grievance> page = service.find(null, null, null, after, 2, false);
+		assertEquals(2, page.getNumberOfElements());
+		assertTrue(page.hasNext());
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(mongoTemplate).find(query.capture(), eq(Grievance.class));
+		Query q = query.getValue();
+		assertEquals(3, q.getLimit());
+		assertEquals(0, q.getSkip());
+		assertEquals(new Document("createdAt", -1).append("_id", -1), q.getSortObject());
+		String filter = q.getQueryObject().toString();
+		assertTrue(filter.contains("$or") && filter.contains("$lt"), filter);
+		assertFalse(filter.contains("$gt"), filter);
+	}
+
+	@Test
+	void lastPageHasNoNext() {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		GrievanceService service = new GrievanceService(mock(GrievanceRepository.class), mock(RegionService.class),
+				mongoTemplate, mock(GrievanceRollupService.class));
+		when(mongoTemplate.find(any(Query.class), eq(Grievance.class))).thenReturn(List.of(grievance(1)));
+
+		Slice<Grievance> page = service.find(null, null, null, null, 2, true);
+		assertEquals(1, page.getNumberOfElements());
+		assertFalse(page.hasNext());
+	}
+}
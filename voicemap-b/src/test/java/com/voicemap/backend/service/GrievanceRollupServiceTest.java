@@ -0,0 +1,147 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.voicemap.backend.model.Grievance;
+import com.voicemap.backend.model.GrievanceRollup;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+class GrievanceRollupServiceTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations ops = mock(BulkOperations.class);
+	private final GrievanceRollupService rollups = new GrievanceRollupService(mongoTemplate);
+	// rollup id -> $inc of every upsert applied to the live collection
+	private final Map<String, Document> increments = new HashMap<>();
+
+	GrievanceRollupServiceTest() {
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GrievanceRollup.class)).thenReturn(ops);
+		when(ops.upsert(any(Query.class), any(Update.class))).thenAnswer(inv -> {
+			Query q = inv.getArgument(0);
+			Update u = inv.getArgument(1);
+			increments.put(q.getQueryObject().getString("_id"), u.getUpdateObject().get("$inc", Document.class));
+			return ops;
+		});
+	}
+
+	private static Grievance grievance(String status) {
+		Grievance g = new Grievance();
+		g.setCategory("water");
+		g.setStatus(status);
+		g.setRegionPcId("pc1");
+		g.setRegionStateId("st1");
+		g.setCreatedAt(Instant.parse("2024-03-05T23:30:00Z"));
+		return g;
+	}
+
+	@Test
+	void insertsCountPerLevelAndStatus() {
+		rollups.recordInserted(List.of(grievance("open"), grievance("open"), grievance("closed")));
+
+		// no district id: only pc and state rollups, one upsert each for the whole batch
+		assertEquals(2, increments.size());
+		Document pc = increments.get("pc|pc1|water|2024-03-05");
+		assertEquals(3L, pc.get("count"));
+		assertEquals(2L, pc.get("byStatus.open"));
+		assertEquals(1L, pc.get("byStatus.closed"));
+		assertTrue(increments.containsKey("state|st1|water|2024-03-05"));
+	}
+
+	@Test
+	void statusChangesMoveCountsWithoutChangingTheTotal() {
+		rollups.recordStatusChange(grievance("open"), "open", "resolved");
+		Document pc = increments.get("pc|pc1|water|2024-03-05");
+		assertEquals(0L, pc.get("count"));
+		assertEquals(-1L, pc.get("byStatus.open"));
+		assertEquals(1L, pc.get("byStatus.resolved"));
+
+		increments.clear();
+		rollups.recordStatusChange(grievance("open"), "open", "open");
+		assertTrue(increments.isEmpty());
+	}
+
+	@Test
+	void invalidStatusesAreNotCounted() {
+		rollups.recordInserted(List.of(grievance("bad status!")));
+		Document pc = increments.get("pc|pc1|water|2024-03-05");
+		assertEquals(1L, pc.get("count"));
+		assertEquals(1, pc.size());
+	}
+
+	private static AggregationResults<Document> rows(Document... rows) {
+		return new AggregationResults<>(List.of(rows), new Document());
+	}
+
+	private static Document row(String regionId, String status, int n) {
+		return new Document("_id", new Document("regionId", regionId).append("category", "water")
+				.append("day", "2024-03-05").append("status", status)).append("n", n);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void writesDuringARebuildAreRecomputedBeforeTheSwap() {
+		MongoDatabase db = mock(MongoDatabase.class);
+		MongoCollection<Document> scratch = mock(MongoCollection.class);
+		when(db.getName()).thenReturn("voicemap");
+		when(mongoTemplate.getDb()).thenReturn(db);
+		when(mongoTemplate.getCollection(GrievanceRollupService.COLLECTION + "_rebuild")).thenReturn(scratch);
+		when(mongoTemplate.indexOps(anyString())).thenReturn(mock(IndexOperations.class));
+
+		List<Aggregation> aggregations = new ArrayList<>();
+		when(mongoTemplate.aggregate(any(Aggregation.class), eq("grievances"), eq(Document.class))).thenAnswer(inv -> {
+			aggregations.add(inv.getArgument(0));
+			if (aggregations.size() == 1) {
+				// a grievance is written while the full pc aggregation runs, after it read pc1
+				rollups.recording(() -> {
+					rollups.recordInserted(List.of(grievance("open")));
+					return null;
+				});
+				return rows(row("pc1", "open", 4));
+			}
+			if (aggregations.size() <= 3) return rows(); // district, state
+			// the catch-up sees the new grievance in pc1 (st1 is recomputed too)
+			return aggregations.size() == 4 ? rows(row("pc1", "open", 5)) : rows(row("st1", "open", 5));
+		});
+
+		rollups.rebuild();
+
+		assertEquals(GrievanceRollupService.RebuildState.DONE, rollups.getRebuildState());
+		assertEquals(5, aggregations.size()); // 3 levels in full, then pc and state for the touched rollups
+		ArgumentCaptor<GrievanceRollup> saved = ArgumentCaptor.forClass(GrievanceRollup.class);
+		InOrder order = inOrder(mongoTemplate, scratch);
+		order.verify(mongoTemplate, times(2)).save(saved.capture(), eq(GrievanceRollupService.COLLECTION + "_rebuild"));
+		order.verify(scratch).renameCollection(eq(new MongoNamespace("voicemap", GrievanceRollupService.COLLECTION)),
+				any(RenameCollectionOptions.class));
+		for (GrievanceRollup r : saved.getAllValues()) assertEquals(5, r.getCount(), r.getId());
+		assertEquals(List.of("pc|pc1|water|2024-03-05", "state|st1|water|2024-03-05"),
+				saved.getAllValues().stream().map(GrievanceRollup::getId).sorted().toList());
+	}
+}
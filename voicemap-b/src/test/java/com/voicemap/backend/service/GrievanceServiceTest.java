@@ -0,0 +1,75 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Grievance;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrievanceServiceTest {
+
+	private static final double[] INDIA = {68.1, 6.5, 97.4, 35.7};
+
+	private static Document mapped(List<Criteria> criteria) {
+		MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+		MongoMappingContext context = new MongoMappingContext();
+		context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		QueryMapper mapper = new QueryMapper(converter);
+		return mapper.getMappedObject(new Criteria().andOperator(criteria).getCriteriaObject(),
+				context.getPersistentEntity(Grievance.class));
+	}
+
+	// latitude of the great circle through (lon1, lat) and (lon2, lat) halfway between them
+	private static double geodesicMidLatitude(double lon1, double lon2, double lat) {
+		double half = Math.toRadians(Math.abs(lon2 - lon1) / 2);
+		return Math.toDegrees(Math.atan(Math.tan(Math.toRadians(lat)) / Math.cos(half)));
+	}
+
+	@Test
+	void viewportFiltersExactlyOnStoredCoordinates() {
+		Document q = mapped(GrievanceService.viewport(INDIA));
+		String json = q.toJson();
+		assertTrue(json.contains("\"location.coordinates.0\": {\"$gte\": 68.1, \"$lte\": 97.4}"), json);
+		assertTrue(json.contains("\"location.coordinates.1\": {\"$gte\": 6.5, \"$lte\": 35.7}"), json);
+		assertTrue(json.contains("$geoWithin"), json);
+	}
+
+	@Test
+	void polygonGeodesicsStayOutsideTheBox() {
+		for (double[] box : new double[][]{INDIA, {-80, -40, -10, -5}, {10, 50, 100, 80}}) {
+			GeoJsonPolygon polygon = GrievanceService.enclosingPolygon(box);
+			List<Point> ring = polygon.getPoints();
+			assertEquals(ring.get(0), ring.get(ring.size() - 1));
+			for (int i = 0; i + 1 < ring.size(); i++) {
+				Point a = ring.get(i), b = ring.get(i + 1);
+				if (a.getY() != b.getY()) continue; // meridian edges are geodesics already
+				assertTrue(Math.abs(b.getX() - a.getX()) <= 1.0 + 1e-9);
+				double mid = geodesicMidLatitude(a.getX(), b.getX(), a.getY());
+				if (a.getY() < box[1]) assertTrue(mid < box[1], "lower edge bows into the box at " + a);
+				else assertTrue(mid > box[3], "upper edge bows into the box at " + a);
+			}
+		}
+	}
+
+	@Test
+	void worldSpanningViewportSkipsTheGeoOperator() {
+		Document q = mapped(GrievanceService.viewport(new double[]{-180, -90, 180, 90}));
+		assertFalse(q.toJson().contains("$geoWithin"));
+		assertEquals(2, GrievanceService.viewport(new double[]{-180, -90, 180, 90}).size());
+	}
+}
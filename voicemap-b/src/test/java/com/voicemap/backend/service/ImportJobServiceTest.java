@@ -0,0 +1,144 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.voicemap.backend.model.ImportJob;
+import com.voicemap.backend.model.Pincode;
+import com.voicemap.backend.model.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImportJobServiceTest {
+
+	@TempDir
+	Path spool;
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final PincodeService pincodeService = mock(PincodeService.class);
+	private final RegionService regionService = mock(RegionService.class);
+	private ImportJobService service;
+
+	private ImportJobService service() {
+		service = new ImportJobService(mongoTemplate, regionService, pincodeService,
+				spool.toString(), 1, "node-a", 15, 120, 2);
+		return service;
+	}
+
+	@AfterEach
+	void shutdown() {
+		if (service != null) service.shutdown();
+	}
+
+	private static ByteArrayInputStream pincodes(int n) {
+		StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+		for (int i = 0; i < n; i++) {
+			if (i > 0) json.append(',');
+			json.append("{\"type\":\"Feature\",\"properties\":{\"Pincode\":\"1100").append(10 + i)
+					.append("\"},\"geometry\":{\"type\":\"Point\",\"coordinates\":[77.2,28.6]}}");
+		}
+		return new ByteArrayInputStream(json.append("]}").toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static UpdateResult matched(long n) {
+		return UpdateResult.acknowledged(n, n, null);
+	}
+
+	@Test
+	void submittedJobIsRunningHereBeforeItIsStored() throws Exception {
+		ImportJobService service = service();
+		AtomicBoolean runningWhenStored = new AtomicBoolean();
+		when(mongoTemplate.save(any(ImportJob.class))).thenAnswer(inv -> {
+			ImportJob job = inv.getArgument(0);
+			// cancelling a job this instance runs never goes to the database
+			runningWhenStored.set(service.cancel(job.getId()));
+			return job;
+		});
+		when(mongoTemplate.replace(any(Query.class), any(ImportJob.class))).thenReturn(matched(0));
+
+		service.submit(ImportJobService.KIND_PINCODE, pincodes(1), null, null, false);
+		assertTrue(runningWhenStored.get());
+		verify(mongoTemplate, never()).findById(anyString(), any());
+	}
+
+	@Test
+	void checkpointOnAJobTakenOverElsewhereStopsTheRun() throws Exception {
+		@SuppressWarnings("unchecked")
+		BulkWriter<Pincode> writer = mock(BulkWriter.class);
+		when(pincodeService.bulkWriter()).thenReturn(writer);
+		// flush after every pincode, so every feature checkpoints
+		when(writer.getPending()).thenReturn(0);
+		AtomicInteger writes = new AtomicInteger();
+		// the start of the run still owns the job; the first checkpoint finds it taken over
+		when(mongoTemplate.replace(any(Query.class), any(ImportJob.class)))
+				.thenAnswer(inv -> matched(writes.getAndIncrement() == 0 ? 1 : 0));
+
+		ImportJob job = service().submit(ImportJobService.KIND_PINCODE, pincodes(50), null, null, false);
+
+		verify(writer, timeout(5000)).flush();
+		verify(mongoTemplate, after(500).never()).replace(any(Query.class),
+				argThat((ImportJob j) -> !j.isActive()));
+		assertEquals(2, writes.get());
+		assertTrue(Files.exists(Path.of(job.getFile())), "spool kept for the new owner");
+	}
+
+	@Test
+	void regionGeometryRunsOnTheImportPoolNotTheCommonPool() throws Exception {
+		@SuppressWarnings("unchecked")
+		BulkWriter<Region> writer = mock(BulkWriter.class);
+		when(regionService.bulkWriter()).thenReturn(writer);
+		when(mongoTemplate.replace(any(Query.class), any(ImportJob.class))).thenReturn(matched(1));
+		// the stored keys of a type are loaded by the geometry worker that first meets it
+		AtomicReference<String> worker = new AtomicReference<>();
+		when(regionService.findImportKeys(any(), any())).thenAnswer(inv -> {
+			worker.set(Thread.currentThread().getName());
+			return List.of();
+		});
+		String square = "{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"properties\":{\"name\":\"A\"},"
+				+ "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,0],[1,1],[0,1],[0,0]]]}}]}";
+
+		service().submit(ImportJobService.KIND_REGION, new ByteArrayInputStream(square.getBytes(StandardCharsets.UTF_8)),
+				"2019", "pc", false);
+
+		verify(regionService, timeout(5000)).importFinished();
+		assertTrue(worker.get().startsWith("import-geometry-"), worker.get());
+	}
+
+	@Test
+	void checkpointCountsOnlyCommittedFeatures() {
+		ImportProgress progress = new ImportProgress(10);
+		for (int i = 0; i < 5; i++) progress.featureRead();
+		progress.featureSkipped();
+		progress.checkpoint(13, 2);
+		// the parser has read past the checkpoint
+		progress.featureRead();
+		progress.featureRead();
+
+		assertEquals(7, progress.getRead());
+		assertEquals(3, progress.getCommittedRead());
+		assertEquals(1, progress.getCommittedSkipped());
+		assertEquals(13, progress.getCommitted());
+	}
+}
@@ -0,0 +1,74 @@
+package com.voicemap.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MvtEncoderTest {
+
+	private static final GeometryFactory GF = new GeometryFactory();
+	// latitude whose Web Mercator y is a quarter of the way down the world tile
+	private static final double LAT_QUARTER = Math.toDegrees(Math.atan(Math.sinh(Math.PI / 2)));
+
+	private static Polygon box(double minLon, double minLat, double maxLon, double maxLat) {
+		return GF.createPolygon(new Coordinate[]{
+				new Coordinate(minLon, minLat), new Coordinate(maxLon, minLat), new Coordinate(maxLon, maxLat),
+				new Coordinate(minLon, maxLat), new Coordinate(minLon, minLat)});
+	}
+
+	private static Map<String, String> props(String name, String code) {
+		Map<String, String> p = new LinkedHashMap<>();
+		p.put("name", name);
+		p.put("code", code);
+		return p;
+	}
+
+	@Test
+	void encodesLayerHeaderAndClockwiseExteriorRing() {
+		MvtEncoder encoder = new MvtEncoder("state", 0, 0, 0);
+		encoder.addFeature(box(-90, 0, 90, LAT_QUARTER), props("A", null));
+
+		Map<Integer, List<Object>> tile = ProtoReader.fields(encoder.encode());
+		Map<Integer, List<Object>> layer = ProtoReader.fields((byte[]) tile.get(3).get(0));
+		assertEquals(List.of(2L), layer.get(15));
+		assertEquals("state", ProtoReader.string(layer.get(1).get(0)));
+		assertEquals(List.of((long) MvtEncoder.EXTENT), layer.get(5));
+
+		Map<Integer, List<Object>> feature = ProtoReader.fields((byte[]) layer.get(2).get(0));
+		assertEquals(List.of(3L), feature.get(3));
+		// MoveTo(1024,1024) LineTo x3 ClosePath, positive area in tile space
+		List<Long> geometry = ProtoReader.packed((byte[]) feature.get(4).get(0));
+		assertEquals(List.of(9L, 2048L, 2048L, 26L, 4096L, 0L, 0L, 2048L, 4095L, 0L, 15L), geometry);
+		// null property values are left out
+		assertEquals(List.of(0L, 0L), ProtoReader.packed((byte[]) feature.get(2).get(0)));
+	}
+
+	@Test
+	void sharesKeysAndValuesAcrossFeatures() {
+		MvtEncoder encoder = new MvtEncoder("pc", 0, 0, 0);
+		encoder.addFeature(box(0, 0, 10, 10), props("A", "1"));
+		encoder.addFeature(box(20, 0, 30, 10), props("A", "2"));
+
+		Map<Integer, List<Object>> layer = ProtoReader.fields((byte[]) ProtoReader.fields(encoder.encode()).get(3).get(0));
+		assertEquals(2, layer.get(2).size());
+		assertEquals(List.of("name", "code"), layer.get(3).stream().map(ProtoReader::string).toList());
+		assertEquals(3, layer.get(4).size());
+		assertEquals(List.of(0L, 0L, 1L, 2L),
+				ProtoReader.packed((byte[]) ProtoReader.fields((byte[]) layer.get(2).get(1)).get(2).get(0)));
+	}
+
+	@Test
+	void dropsFeaturesThatCollapseAtThisZoom() {
+		MvtEncoder encoder = new MvtEncoder("ward", 0, 0, 0);
+		encoder.addFeature(box(10, 10, 10.00001, 10.00001), props("tiny", null));
+		assertTrue(encoder.isEmpty());
+	}
+}
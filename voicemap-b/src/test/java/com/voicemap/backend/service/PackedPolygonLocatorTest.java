@@ -0,0 +1,73 @@
+package com.voicemap.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedPolygonLocatorTest {
+
+	private static final GeometryFactory FACTORY = new GeometryFactory();
+
+	// a 10x10 square with a 2x2 hole at (4,4)
+	private static PackedMultiPolygon squareWithHole() {
+		double[] xy = {0, 0, 10, 0, 10, 10, 0, 10, 0, 0, 4, 4, 6, 4, 6, 6, 4, 6, 4, 4};
+		return new PackedMultiPolygon(DoubleBuffer.wrap(xy), new int[]{0, 5, 10}, new int[]{0, 2});
+	}
+
+	@Test
+	void holesAreOutsideAndBoundariesInside() {
+		PackedPolygonLocator locator = new PackedPolygonLocator(squareWithHole());
+		assertTrue(locator.covers(1, 1));
+		assertFalse(locator.covers(5, 5));
+		assertTrue(locator.covers(0, 5));   // outer edge
+		assertTrue(locator.covers(4, 5));   // hole edge
+		assertTrue(locator.covers(10, 10)); // vertex
+		assertFalse(locator.covers(11, 5));
+	}
+
+	@Test
+	void rectanglesInsideHolesDoNotIntersect() {
+		PackedPolygonLocator locator = new PackedPolygonLocator(squareWithHole());
+		assertFalse(locator.intersects(new Envelope(4.5, 5.5, 4.5, 5.5)));
+		assertTrue(locator.intersects(new Envelope(3, 5, 3, 5)));       // straddles the hole edge
+		assertTrue(locator.intersects(new Envelope(-5, 20, -5, 20)));   // contains everything
+		assertTrue(locator.intersects(new Envelope(1, 2, 1, 2)));       // inside the shell
+		assertTrue(locator.intersects(new Envelope(10, 12, 2, 3)));     // touches the outer edge
+		assertFalse(locator.intersects(new Envelope(11, 12, 2, 3)));
+	}
+
+	@Test
+	void agreesWithJtsOnParliamentaryConstituencies() throws Exception {
+		JsonNode features = new ObjectMapper().readTree(Path.of("geo/pc.geojson").toFile()).get("features");
+		Random random = new Random(42);
+		for (int f = 0; f < features.size(); f += 9) {
+			PackedMultiPolygon packed = PackedMultiPolygon.of(GeoJsonConverter.toMultiPolygon(features.get(f).get("geometry")));
+			PackedPolygonLocator locator = new PackedPolygonLocator(packed);
+			PreparedGeometry jts = PreparedGeometryFactory.prepare(packed.toJts());
+			Envelope env = locator.getEnvelope();
+			for (int i = 0; i < 200; i++) {
+				double x = env.getMinX() + random.nextDouble() * env.getWidth();
+				double y = env.getMinY() + random.nextDouble() * env.getHeight();
+				assertEquals(jts.intersects(FACTORY.createPoint(new Coordinate(x, y))), locator.covers(x, y),
+						"feature " + f + " point " + x + "," + y);
+				Envelope box = new Envelope(x, x + random.nextDouble() * env.getWidth() / 20,
+						y, y + random.nextDouble() * env.getHeight() / 20);
+				assertEquals(jts.intersects(FACTORY.toGeometry(box)), locator.intersects(box),
+						"feature " + f + " box " + box);
+			}
+		}
+	}
+}
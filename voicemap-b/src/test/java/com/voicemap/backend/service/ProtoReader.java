@@ -0,0 +1,65 @@
+package com.voicemap.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Decodes protobuf messages written by ProtoWriter into field number -> raw values, for tests. */
+public final class ProtoReader {
+
+	private final byte[] buf;
+	private int pos;
+
+	private ProtoReader(byte[] buf) {
+		this.buf = buf;
+	}
+
+	/** Varint fields map to Long, length-delimited fields to byte[]; repeated fields keep their order. */
+	public static Map<Integer, List<Object>> fields(byte[] message) {
+		ProtoReader r = new ProtoReader(message);
+		Map<Integer, List<Object>> out = new LinkedHashMap<>();
+		while (r.pos < message.length) {
+			long tag = r.varint();
+			int field = (int) (tag >>> 3);
+			Object value = switch ((int) (tag & 7)) {
+				case 0 -> r.varint();
+				case 2 -> {
+					int len = (int) r.varint();
+					byte[] b = new byte[len];
+					System.arraycopy(message, r.pos, b, 0, len);
+					r.pos += len;
+					yield b;
+				}
+				default -> throw new IllegalArgumentException("Unsupported wire type in tag " + tag);
+			};
+			out.computeIfAbsent(field, k -> new ArrayList<>()).add(value);
+		}
+		return out;
+	}
+
+	public static List<Long> packed(byte[] packed) {
+		ProtoReader r = new ProtoReader(packed);
+		List<Long> out = new ArrayList<>();
+		while (r.pos < packed.length) out.add(r.varint());
+		return out;
+	}
+
+	public static long unzigzag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public static String string(Object bytes) {
+		return new String((byte[]) bytes, StandardCharsets.UTF_8);
+	}
+
+	private long varint() {
+		long v = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = buf[pos++];
+			v |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return v;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.voicemap.backend.service;
+
+import com.mongodb.MongoClientSettings;
+import com.voicemap.backend.model.Region;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.geo.GeoJsonMultiPolygon;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionCodecTest {
+
+	private static final RegionCodec CODEC = new RegionCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+	private static Region decode(Document doc) {
+		BsonDocument bson = doc.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+		return CODEC.decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+	}
+
+	private static MappingMongoConverter converter() {
+		MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+		MongoMappingContext context = new MongoMappingContext();
+		context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		return converter;
+	}
+
+	// what MongoTemplate stores for a region
+	private static Document written(Region r) {
+		Document doc = new Document();
+		converter().write(r, doc);
+		return doc;
+	}
+
+	private static Region region() {
+		Region r = new Region();
+		r.setId(new ObjectId().toHexString());
+		r.setName("Thrissur");
+		r.setCode("PC-10");
+		r.setType("pc");
+		r.setState("Kerala");
+		r.setParentId("p1");
+		r.setSource("2019");
+		r.setSourceId("S10");
+		r.setSourceYear(2019);
+		r.setVerified(true);
+		r.setFingerprint("abc");
+		r.setCreatedAt(Instant.ofEpochMilli(1_000));
+		r.setUpdatedAt(Instant.ofEpochMilli(2_000));
+		r.setBbox(new double[]{0, 0, 4, 4});
+		r.setCentroid(new double[]{2, 2});
+		r.setMeta(Map.of("population", 12));
+		r.setGeo(new GeoJsonMultiPolygon(List.of(new GeoJsonPolygon(
+				List.of(new Point(0, 0), new Point(4, 0), new Point(4, 4), new Point(0, 4), new Point(0, 0)))
+				.withInnerRing(List.of(new Point(1, 1), new Point(2, 1), new Point(2, 2), new Point(1, 1))))));
+		return r;
+	}
+
+	@Test
+	void decodesWhatMongoTemplateWrites() {
+		Region r = region();
+		Region d = decode(written(r));
+		assertEquals(r.getId(), d.getId());
+		assertEquals("Thrissur", d.getName());
+		assertEquals("PC-10", d.getCode());
+		assertEquals("pc", d.getType());
+		assertEquals("Kerala", d.getState());
+		assertEquals("p1", d.getParentId());
+		assertEquals("2019", d.getSource());
+		assertEquals("S10", d.getSourceId());
+		assertEquals(Integer.valueOf(2019), d.getSourceYear());
+		assertTrue(d.isVerified());
+		assertEquals("abc", d.getFingerprint());
+		assertEquals(r.getCreatedAt(), d.getCreatedAt());
+		assertEquals(r.getUpdatedAt(), d.getUpdatedAt());
+		assertArrayEquals(r.getBbox(), d.getBbox());
+		assertArrayEquals(r.getCentroid(), d.getCentroid());
+		assertEquals(12, d.getMeta().get("population"));
+		assertNull(d.getGeo());
+
+		PackedMultiPolygon g = d.getPackedGeo();
+		assertEquals(1, g.getNumPolygons());
+		assertEquals(2, g.getNumRings(0));
+		assertEquals(5, g.getNumPoints(0));
+		assertEquals(4, g.getNumPoints(1));
+		assertEquals(2, g.getX(1, 2));
+	}
+
+	@Test
+	void toleratesUnexpectedValueTypes() {
+		Document doc = new Document("_id", "r1")
+				.append("code", 101)
+				.append("name", new Document("en", "Thrissur"))
+				.append("state", null)
+				.append("sourceYear", "2019")
+				.append("verified", "yes")
+				.append("createdAt", "2020-01-01")
+				.append("bbox", List.of(0, "x", 4.5))
+				.append("meta", "none")
+				.append("geo", "n/a");
+		Region d = decode(doc);
+		assertEquals("r1", d.getId());
+		assertEquals("101", d.getCode());
+		assertNull(d.getName());
+		assertNull(d.getState());
+		assertNull(d.getSourceYear());
+		assertFalse(d.isVerified());
+		assertNull(d.getCreatedAt());
+		assertArrayEquals(new double[]{0, 4.5}, d.getBbox());
+		assertNull(d.getMeta());
+		assertNull(d.getPackedGeo());
+	}
+
+	@Test
+	void singlePolygonsAndIntegerCoordinatesDecode() {
+		Document geo = new Document("type", "Polygon")
+				.append("coordinates", List.of(List.of(List.of(0, 0), List.of(3, 0), List.of(3, 3), List.of(0, 0))));
+		PackedMultiPolygon g = decode(new Document("geo", geo)).getPackedGeo();
+		assertEquals(1, g.getNumPolygons());
+		assertEquals(3, g.getX(0, 1));
+	}
+
+	@Test
+	void encodesWhatMongoTemplateWrites() {
+		Region r = region();
+		BsonDocument spring = written(r).toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+		assertEquals(spring, RegionCodec.toBsonDocument(r));
+
+		// the same document from packed geometry alone
+		Region packed = region();
+		packed.setId(r.getId());
+		packed.setPackedGeo(PackedMultiPolygon.of(packed.getGeo()));
+		packed.setGeo(null);
+		assertEquals(spring, RegionCodec.toBsonDocument(packed));
+	}
+
+	@Test
+	void importUpdatePassesEncodedValuesThroughSpringMapping() {
+		Region r = region();
+		r.setPackedGeo(PackedMultiPolygon.of(r.getGeo()));
+		r.setGeo(null);
+		r.setCode(null);
+		Document mapped = new UpdateMapper(converter()).getMappedObject(
+				RegionService.importUpdate(r).getUpdateObject(), converter().getMappingContext().getPersistentEntity(Region.class));
+		Document set = mapped.get("$set", Document.class);
+
+		Document stored = written(region());
+		assertEquals(stored.get("geo"), Document.parse(((BsonDocument) set.get("geo")).toJson()));
+		assertEquals(new BsonString("Thrissur"), set.get("name"));
+		assertEquals(BsonNull.VALUE, set.get("code"));
+		assertFalse(set.containsKey("meta"));
+		assertFalse(set.containsKey("parentId"));
+	}
+}
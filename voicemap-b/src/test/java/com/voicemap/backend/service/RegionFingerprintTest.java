@@ -0,0 +1,47 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RegionFingerprintTest {
+
+	@Test
+	void codeIdentifiesRegardlessOfOtherFields() {
+		assertEquals(RegionFingerprint.key("district", "Bihar", "101", "2011", "7", "Aurangabad"),
+				RegionFingerprint.key("district", "Maharashtra", "101", "2021", null, "Aurangabad"));
+	}
+
+	@Test
+	void sameNameInDifferentStatesAreDifferentRegions() {
+		assertNotEquals(RegionFingerprint.key("district", "Bihar", null, "2011", null, "Aurangabad"),
+				RegionFingerprint.key("district", "Maharashtra", null, "2011", null, "Aurangabad"));
+	}
+
+	@Test
+	void sourceIdIsScopedToItsSource() {
+		assertEquals(RegionFingerprint.key("pc", "Bihar", null, "2019", "42", "Patna Sahib"),
+				RegionFingerprint.key("pc", "Bihar", null, "2019", "42", "Patna"));
+		assertNotEquals(RegionFingerprint.key("pc", "Bihar", null, "2019", "42", null),
+				RegionFingerprint.key("pc", "Bihar", null, "2024", "42", null));
+	}
+
+	@Test
+	void unnamedRegionsWithoutIdsHaveNoKey() {
+		assertNull(RegionFingerprint.key("pc", "Bihar", null, "2019", null, null));
+		assertNull(RegionFingerprint.key("pc", "Bihar", null, "2019", null, RegionFingerprint.UNNAMED));
+
+		Region r = new Region();
+		r.setType("pc");
+		r.setName(RegionFingerprint.UNNAMED);
+		assertNull(RegionFingerprint.key(r));
+		// inserted: the upsert targets a fresh _id
+		assertEquals(Set.of("_id"), RegionService.importKey(r).getQueryObject().keySet());
+		assertNotEquals(RegionService.importKey(r).getQueryObject(), RegionService.importKey(r).getQueryObject());
+	}
+}
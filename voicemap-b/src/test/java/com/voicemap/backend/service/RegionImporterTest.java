@@ -0,0 +1,151 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegionImporterTest {
+
+	private static final Path PC = Path.of("geo/pc.geojson");
+
+	// the documents a collection would hold after the bulk writes: upserts by query, plus inserts
+	private final Map<Document, Document> upserted = new LinkedHashMap<>();
+	private final List<Region> inserted = new ArrayList<>();
+	private final RegionService regionService = mock(RegionService.class);
+
+	RegionImporterTest() {
+		MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+		BulkOperations ops = mock(BulkOperations.class);
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Region.class)).thenReturn(ops);
+		when(ops.upsert(any(Query.class), any(Update.class))).thenAnswer(inv -> {
+			Query q = inv.getArgument(0);
+			Update u = inv.getArgument(1);
+			upserted.put(q.getQueryObject(), u.getUpdateObject().get("$set", Document.class));
+			return ops;
+		});
+		when(ops.insert(any(Object.class))).thenAnswer(inv -> {
+			inserted.add(inv.getArgument(0));
+			return ops;
+		});
+		when(regionService.bulkWriter()).thenAnswer(inv -> new BulkWriter<>(mongoTemplate, Region.class, 100,
+				RegionService::importKey, RegionService::importUpdate, null));
+	}
+
+	private ImportProgress importPc() throws Exception {
+		return importPc(false);
+	}
+
+	private ImportProgress importPc(boolean replace) throws Exception {
+		ImportProgress progress = new ImportProgress();
+		try (InputStream in = Files.newInputStream(PC)) {
+			new RegionImporter(regionService).importFromGeoJson(in, "2019", "pc", replace, progress);
+		}
+		return progress;
+	}
+
+	// the regions the first import of pc.geojson left in the collection
+	private List<Region> storedFromUpserts() {
+		List<Region> stored = new ArrayList<>();
+		int id = 0;
+		for (Document set : upserted.values()) {
+			Region r = new Region();
+			r.setId("r" + id++);
+			r.setType(text(set, "type"));
+			r.setCode(text(set, "code"));
+			r.setState(text(set, "state"));
+			r.setSource(text(set, "source"));
+			r.setSourceId(text(set, "sourceId"));
+			r.setName(text(set, "name"));
+			r.setFingerprint(text(set, "fingerprint"));
+			stored.add(r);
+		}
+		return stored;
+	}
+
+	// importUpdate sets the values RegionCodec encoded
+	private static String text(Document set, String field) {
+		BsonValue v = (BsonValue) set.get(field);
+		return v.isString() ? v.asString().getValue() : null;
+	}
+
+	private static Region stored(String id, String type, String sourceId) {
+		Region r = new Region();
+		r.setId(id);
+		r.setType(type);
+		r.setSource("2019");
+		r.setSourceId(sourceId);
+		r.setName("Gone");
+		r.setFingerprint("old");
+		return r;
+	}
+
+	@Test
+	void everyParliamentaryConstituencyBecomesItsOwnDocument() throws Exception {
+		importPc();
+		// pc.geojson has no code or name property: pc_id identifies each of the 543 features
+		assertEquals(543, upserted.size() + inserted.size());
+		assertTrue(inserted.isEmpty());
+	}
+
+	@Test
+	void reimportingTheSameFileWritesNothing() throws Exception {
+		importPc();
+		when(regionService.findImportKeys("2019", "pc")).thenReturn(storedFromUpserts());
+		upserted.clear();
+
+		ImportProgress progress = importPc();
+		assertEquals(543, progress.getUnchanged());
+		assertEquals(0, progress.getRemoved());
+		assertTrue(upserted.isEmpty());
+	}
+
+	@Test
+	void replacingOneTypeLeavesOtherTypesOfTheSourceAlone() throws Exception {
+		importPc();
+		List<Region> pcs = storedFromUpserts();
+		pcs.add(stored("stale-pc", "pc", "9999"));
+		pcs.add(stored("keyless-pc", "pc", null));
+		when(regionService.findImportKeys("2019", "pc")).thenReturn(pcs);
+		when(regionService.findImportKeys("2019", "ac"))
+				.thenReturn(List.of(stored("ac-1", "ac", "1"), stored("ac-2", "ac", null)));
+		upserted.clear();
+
+		ImportProgress progress = importPc(true);
+		assertEquals(2, progress.getRemoved());
+		verify(regionService).deleteByIds(argThat(ids -> ids.size() == 2
+				&& ids.containsAll(List.of("stale-pc", "keyless-pc"))));
+		verify(regionService, never()).findImportKeys("2019", "ac");
+	}
+
+	@Test
+	void withoutReplaceNothingIsDeleted() throws Exception {
+		when(regionService.findImportKeys("2019", "pc")).thenReturn(List.of(stored("stale-pc", "pc", "9999")));
+
+		ImportProgress progress = importPc(false);
+		assertEquals(0, progress.getRemoved());
+		verify(regionService, never()).deleteByIds(anyCollection());
+	}
+}
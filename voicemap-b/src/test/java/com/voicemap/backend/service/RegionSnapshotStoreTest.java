@@ -0,0 +1,85 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RegionSnapshotStoreTest {
+
+	@TempDir
+	Path dir;
+
+	private static Region region(String id) {
+		Region r = new Region();
+		r.setId(id);
+		r.setName("Region " + id);
+		r.setType("district");
+		r.setState("Kerala");
+		r.setSource("2011");
+		r.setSourceId("k" + id);
+		r.setSourceYear(2011);
+		r.setFingerprint("fp" + id);
+		r.setCreatedAt(Instant.ofEpochMilli(1_000));
+		r.setUpdatedAt(Instant.ofEpochMilli(2_000));
+		r.setBbox(new double[]{0, 0, 1, 1});
+		return r;
+	}
+
+	// one square shell with a square hole
+	private static PackedMultiPolygon square() {
+		double[] xy = {0, 0, 4, 0, 4, 4, 0, 4, 0, 0, 1, 1, 2, 1, 2, 2, 1, 1};
+		return new PackedMultiPolygon(DoubleBuffer.wrap(xy), new int[]{0, 5, 9}, new int[]{0, 2});
+	}
+
+	@Test
+	void writtenSnapshotMapsBackWithMetadataAndGeometry() throws Exception {
+		RegionSnapshotStore store = new RegionSnapshotStore(dir.resolve("regions.snapshot").toString(), true);
+		List<Region> regions = List.of(region("a"), region("b"));
+		String stamp = RegionSnapshotStore.stamp(regions);
+		store.write(regions, List.of(square(), PackedMultiPolygon.of(null)), stamp);
+
+		RegionSnapshotStore.MappedRegions mapped = store.open();
+		assertEquals(stamp, mapped.getStamp());
+		Region a = mapped.getRegions().get(0);
+		assertEquals("Region a", a.getName());
+		assertEquals("ka", a.getSourceId());
+		assertEquals(Integer.valueOf(2011), a.getSourceYear());
+		assertEquals(Instant.ofEpochMilli(2_000), a.getUpdatedAt());
+		assertNull(a.getCode());
+		assertArrayEquals(new double[]{0, 0, 1, 1}, a.getBbox());
+
+		PackedMultiPolygon g = mapped.geometry(0);
+		assertEquals(1, g.getNumPolygons());
+		assertEquals(2, g.getNumRings(0));
+		assertEquals(4, g.getNumPoints(1));
+		assertEquals(2, g.getX(1, 2));
+		assertEquals(0, mapped.geometry(1).getNumPolygons());
+	}
+
+	@Test
+	void stampChangesWhenAWriteBumpsUpdatedAt() {
+		Region edited = region("a");
+		edited.setUpdatedAt(Instant.ofEpochMilli(3_000));
+		assertNotEquals(RegionSnapshotStore.stamp(List.of(region("a"))), RegionSnapshotStore.stamp(List.of(edited)));
+		// order-independent
+		assertEquals(RegionSnapshotStore.stamp(List.of(region("a"), region("b"))),
+				RegionSnapshotStore.stamp(List.of(region("b"), region("a"))));
+	}
+
+	@Test
+	void disabledStoreNeitherWritesNorReads() throws Exception {
+		RegionSnapshotStore store = new RegionSnapshotStore(dir.resolve("off.snapshot").toString(), false);
+		store.write(List.of(region("a")), List.of(square()), "x");
+		assertNull(store.open());
+	}
+}
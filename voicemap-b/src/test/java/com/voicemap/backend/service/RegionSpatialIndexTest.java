@@ -0,0 +1,63 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegionSpatialIndexTest {
+
+	private final RegionReader reader = mock(RegionReader.class);
+	private final RegionSpatialIndex index = new RegionSpatialIndex(reader, mock(MongoTemplate.class),
+			new RegionSnapshotStore("unused", false), mock(ApplicationEventPublisher.class));
+
+	private static Region square(String id, String type, double x, double y, double size) {
+		Region r = new Region();
+		r.setId(id);
+		r.setType(type);
+		r.setBbox(new double[]{x, y, x + size, y + size});
+		r.setPackedGeo(new PackedMultiPolygon(DoubleBuffer.wrap(new double[]{x, y, x + size, y, x + size, y + size, x, y + size, x, y}),
+				new int[]{0, 5}, new int[]{0, 1}));
+		return r;
+	}
+
+	@Test
+	void rebuildMakesIndexReadyAndWritesMakeItStale() {
+		when(reader.find(any(Bson.class), anyBoolean())).thenAnswer(inv -> new ArrayList<>(List.of(
+				square("s", "state", 0, 0, 10), square("d", "district", 1, 1, 2))));
+
+		assertFalse(index.isReady());
+		index.rebuild();
+		assertTrue(index.isReady());
+		assertEquals(List.of("d", "s"), index.findContaining(2, 2, null).stream().map(Region::getId).toList());
+
+		index.markStale();
+		assertFalse(index.isReady());
+		assertTrue(index.hasSnapshot());
+	}
+
+	@Test
+	void writeDuringRebuildLeavesNewSnapshotStale() {
+		when(reader.find(any(Bson.class), anyBoolean())).thenAnswer(inv -> {
+			index.markStale(); // a region is saved while the rebuild is loading
+			return new ArrayList<>(List.of(square("s", "state", 0, 0, 10)));
+		});
+
+		index.rebuild();
+		assertTrue(index.hasSnapshot());
+		assertFalse(index.isReady());
+	}
+}
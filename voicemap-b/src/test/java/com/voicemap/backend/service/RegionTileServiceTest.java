@@ -0,0 +1,68 @@
+package com.voicemap.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Envelope;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class RegionTileServiceTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void startupClearsOnlyVersionDirectories() throws Exception {
+		Path tile = Files.createDirectories(dir.resolve("7/state/0/0")).resolve("0.mvt");
+		Files.write(tile, new byte[]{1});
+		Path unrelated = Files.writeString(dir.resolve("notes.txt"), "keep");
+		Path otherDir = Files.createDirectories(dir.resolve("backups"));
+
+		RegionTileService tiles = new RegionTileService(mock(RegionService.class), mock(RegionSpatialIndex.class),
+				mock(SimplifiedGeometryCache.class), dir.toString(), 1, List.of(), 0);
+		tiles.clearStaleTiles();
+
+		assertFalse(Files.exists(dir.resolve("7")));
+		assertTrue(Files.exists(unrelated));
+		assertTrue(Files.exists(otherDir));
+		tiles.shutdown();
+	}
+
+	@Test
+	void startupToleratesMissingCacheDir() {
+		RegionTileService tiles = new RegionTileService(mock(RegionService.class), mock(RegionSpatialIndex.class),
+				mock(SimplifiedGeometryCache.class), dir.resolve("missing").toString(), 1, List.of(), 0);
+		tiles.clearStaleTiles();
+		assertFalse(Files.exists(dir.resolve("missing")));
+		tiles.shutdown();
+	}
+
+	@Test
+	void renderQueriesRegionsByTheBufferedTileBbox() {
+		RegionService regions = mock(RegionService.class);
+		RegionSpatialIndex index = mock(RegionSpatialIndex.class);
+		RegionTileService tiles = new RegionTileService(regions, index,
+				mock(SimplifiedGeometryCache.class), dir.toString(), 1, List.of(), 0);
+
+		assertEquals(0, tiles.render("district", 6, 45, 27).length);
+		Envelope tile = RegionTileService.tileEnvelope(6, 45, 27);
+		verify(regions).findIntersecting(argThat(b -> b[0] < tile.getMinX() && b[1] < tile.getMinY()
+				&& b[2] > tile.getMaxX() && b[3] > tile.getMaxY()), eq("district"));
+		verify(regions, never()).findByType(anyString());
+		verify(index, never()).findIntersecting(any(), anyString());
+		tiles.shutdown();
+	}
+}
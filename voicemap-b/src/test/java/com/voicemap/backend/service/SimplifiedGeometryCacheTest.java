@@ -0,0 +1,62 @@
+package com.voicemap.backend.service;
+
+import com.voicemap.backend.model.Region;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SimplifiedGeometryCacheTest {
+
+	private final RegionService regionService = mock(RegionService.class);
+	private final RegionSpatialIndex spatialIndex = mock(RegionSpatialIndex.class);
+	private final SimplifiedGeometryCache cache = new SimplifiedGeometryCache(regionService, spatialIndex, 100);
+
+	private static Geometry square() {
+		GeometryFactory f = new GeometryFactory();
+		return f.createPolygon(new Coordinate[]{new Coordinate(0, 0), new Coordinate(1, 0),
+				new Coordinate(1, 1), new Coordinate(0, 1), new Coordinate(0, 0)});
+	}
+
+	private Region indexed(String id) {
+		Region r = new Region();
+		r.setId(id);
+		when(spatialIndex.geometryOf(r)).thenReturn(square());
+		return r;
+	}
+
+	@Test
+	void hitsDoNotFetchTheSourceGeometry() {
+		when(regionService.getDatasetVersion()).thenReturn(1L);
+		Region r = indexed("a");
+		Geometry first = cache.get(r, 0.01);
+		Geometry second = cache.get(r, 0.012); // snaps to the same level
+		assertSame(first, second);
+		verify(spatialIndex, times(1)).geometryOf(r);
+	}
+
+	@Test
+	void aNewDatasetVersionMissesAgain() {
+		when(regionService.getDatasetVersion()).thenReturn(1L, 2L);
+		Region r = indexed("a");
+		cache.get(r, 0.01);
+		cache.get(r, 0.01);
+		verify(spatialIndex, times(2)).geometryOf(r);
+	}
+
+	@Test
+	void tolerancesSnapToTheNearestLevel() {
+		assertEquals(0, SimplifiedGeometryCache.snap(null));
+		assertEquals(0, SimplifiedGeometryCache.snap(0.0));
+		assertEquals(0.01, SimplifiedGeometryCache.snap(0.012));
+		assertEquals(0.1, SimplifiedGeometryCache.snap(5.0));
+		assertEquals(0.0005, SimplifiedGeometryCache.snap(1e-9));
+	}
+}